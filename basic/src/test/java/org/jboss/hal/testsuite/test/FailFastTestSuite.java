@@ -0,0 +1,11 @@
+package org.jboss.hal.testsuite.test;
+
+import org.jboss.hal.testsuite.scheduling.FailFastSuite;
+import org.junit.runner.RunWith;
+
+/**
+ * Entry point of <code>failFast</code> profile, runs all test classes of this module via {@link FailFastSuite}.
+ */
+@RunWith(FailFastSuite.class)
+public class FailFastTestSuite {
+}
@@ -0,0 +1,11 @@
+package org.jboss.hal.testsuite.test;
+
+import org.jboss.hal.testsuite.scheduling.ReloadAwareSuite;
+import org.junit.runner.RunWith;
+
+/**
+ * Entry point of <code>reloadAware</code> profile, runs all test classes of this module via {@link ReloadAwareSuite}.
+ */
+@RunWith(ReloadAwareSuite.class)
+public class ReloadAwareTestSuite {
+}
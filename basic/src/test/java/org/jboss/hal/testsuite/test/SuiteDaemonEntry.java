@@ -0,0 +1,11 @@
+package org.jboss.hal.testsuite.test;
+
+import org.jboss.hal.testsuite.daemon.SuiteDaemon;
+import org.junit.runner.RunWith;
+
+/**
+ * Entry point of <code>daemon</code> profile, keeps {@link SuiteDaemon} serving test requests for this module.
+ */
+@RunWith(SuiteDaemon.class)
+public class SuiteDaemonEntry {
+}
@@ -10,6 +10,7 @@ import static org.junit.Assert.assertTrue;
 import org.jboss.arquillian.graphene.page.Page;
 import org.jboss.arquillian.junit.Arquillian;
 import org.jboss.hal.testsuite.category.Shared;
+import org.jboss.hal.testsuite.creaper.AttributesVerifier;
 import org.jboss.hal.testsuite.creaper.ResourceVerifier;
 import org.jboss.hal.testsuite.fragment.formeditor.Editor;
 import org.jboss.hal.testsuite.fragment.shared.modal.WizardWindowWithOptionalFields;
@@ -139,11 +140,13 @@ public class DirContextTestCase extends AbstractElytronTestCase {
                 .edit(TEXT, PRINCIPAL, newPrincipalValue)
                 .edit(TEXT, CONNECTION_TIMEOUT, connectionTimeoutValue)
                 .edit(CHECKBOX, ENABLE_CONNECTION_POOLING, true)
-                .andSave().verifyFormSaved()
-                .verifyAttribute(URL, newUrlValue)
-                .verifyAttribute(PRINCIPAL, newPrincipalValue)
-                .verifyAttribute(CONNECTION_TIMEOUT, Integer.valueOf(connectionTimeoutValue))
-                .verifyAttribute(ENABLE_CONNECTION_POOLING, true);
+                .andSave().verifyFormSaved();
+            new AttributesVerifier(client)
+                .expect(dirContextAddress, URL, newUrlValue)
+                .expect(dirContextAddress, PRINCIPAL, newPrincipalValue)
+                .expect(dirContextAddress, CONNECTION_TIMEOUT, Integer.parseInt(connectionTimeoutValue))
+                .expect(dirContextAddress, ENABLE_CONNECTION_POOLING, true)
+                .verify();
         } finally {
             ops.removeIfExists(dirContextAddress);
             adminOps.reloadIfRequired();
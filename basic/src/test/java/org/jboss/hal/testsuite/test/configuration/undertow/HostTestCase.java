@@ -4,6 +4,7 @@ import org.apache.commons.lang.RandomStringUtils;
 import org.jboss.arquillian.graphene.page.Page;
 import org.jboss.arquillian.junit.Arquillian;
 import org.jboss.hal.testsuite.category.Shared;
+import org.jboss.hal.testsuite.creaper.AsyncOperations;
 import org.jboss.hal.testsuite.creaper.ResourceVerifier;
 import org.jboss.hal.testsuite.fragment.formeditor.Editor;
 import org.jboss.hal.testsuite.fragment.shared.modal.WizardWindow;
@@ -100,22 +101,26 @@ public class HostTestCase extends UndertowTestCaseAbstract {
 
     @AfterClass
     public static void tearDown() throws InterruptedException, IOException, TimeoutException, OperationException {
-        //remove references to filters first
-        operations.removeIfExists(REWRITE_FILTER_REFERENCE_ADDRESS);
-        operations.removeIfExists(GZIP_FILTER_REFERENCE_ADDRESS);
-        operations.removeIfExists(ERROR_PAGE_FILTER_REFERENCE_ADDRESS);
-        operations.removeIfExists(REQUEST_LIMIT_FILTER_REFERENCE_ADDRESS);
-
-        administration.reloadIfRequired();
-
-        operations.removeIfExists(GZIP_PAGE_FILTER_ADDRESS);
-        operations.removeIfExists(REWRITE_FILTER_ADDRESS);
-        operations.removeIfExists(ERROR_PAGE_FILTER_ADDRESS);
-        operations.removeIfExists(REQUEST_LIMIT_FILTER_ADDRESS);
-        operations.removeIfExists(HOST_ADDRESS);
-        operations.removeIfExists(HOST_TBA_ADDRESS);
-        operations.removeIfExists(HOST_TBR_ADDRESS);
-        operations.removeIfExists(HTTP_SERVER_ADDRESS);
+        try (AsyncOperations async = new AsyncOperations(client)) {
+            //remove references to filters first
+            async.removeIfExists(REWRITE_FILTER_REFERENCE_ADDRESS);
+            async.removeIfExists(GZIP_FILTER_REFERENCE_ADDRESS);
+            async.removeIfExists(ERROR_PAGE_FILTER_REFERENCE_ADDRESS);
+            async.removeIfExists(REQUEST_LIMIT_FILTER_REFERENCE_ADDRESS);
+            async.joinAll();
+
+            administration.reloadIfRequired();
+
+            async.removeIfExists(GZIP_PAGE_FILTER_ADDRESS);
+            async.removeIfExists(REWRITE_FILTER_ADDRESS);
+            async.removeIfExists(ERROR_PAGE_FILTER_ADDRESS);
+            async.removeIfExists(REQUEST_LIMIT_FILTER_ADDRESS);
+            async.removeIfExists(HTTP_SERVER_ADDRESS,
+                    async.removeIfExists(HOST_ADDRESS),
+                    async.removeIfExists(HOST_TBA_ADDRESS),
+                    async.removeIfExists(HOST_TBR_ADDRESS));
+            async.joinAll();
+        }
     }
 
     @Test
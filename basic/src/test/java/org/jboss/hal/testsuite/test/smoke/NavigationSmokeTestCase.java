@@ -0,0 +1,60 @@
+package org.jboss.hal.testsuite.test.smoke;
+
+import org.jboss.arquillian.drone.api.annotation.Drone;
+import org.jboss.arquillian.graphene.Graphene;
+import org.jboss.arquillian.junit.Arquillian;
+import org.jboss.hal.testsuite.category.Shared;
+import org.jboss.hal.testsuite.page.BasePage;
+import org.jboss.hal.testsuite.page.Navigatable;
+import org.jboss.hal.testsuite.util.ClassScanner;
+import org.jboss.hal.testsuite.util.Console;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Smoke test navigating to every {@link Navigatable} page found in the common module, to find out quickly whether the
+ * console build is usable at all. Excluded from regular runs, runs in <code>failFast</code> profile only.
+ */
+@RunWith(Arquillian.class)
+@Category(Shared.class)
+public class NavigationSmokeTestCase {
+
+    private static final Logger log = LoggerFactory.getLogger(NavigationSmokeTestCase.class);
+    private static final By HTML_SELECTOR = By.tagName("html");
+
+    @Drone
+    private WebDriver browser;
+
+    @Test
+    public void navigateToEveryPage() throws Exception {
+        List<String> failures = new ArrayList<>();
+        List<Class<? extends Navigatable>> pages = ClassScanner.findSubtypes(Navigatable.class, Navigatable.class);
+        for (Class<? extends Navigatable> pageClass : pages) {
+            if (Modifier.isAbstract(pageClass.getModifiers()) || !BasePage.class.isAssignableFrom(pageClass)) {
+                continue;
+            }
+            try {
+                Navigatable page = Graphene.createPageFragment(pageClass, browser.findElement(HTML_SELECTOR));
+                page.navigate();
+                if (!Console.withBrowser(browser).isReusable()) {
+                    failures.add(pageClass.getSimpleName() + ": console not loaded or modal window left open");
+                }
+            } catch (RuntimeException e) {
+                log.warn("Navigation to " + pageClass.getSimpleName() + " failed", e);
+                failures.add(pageClass.getSimpleName() + ": " + e.getMessage());
+            }
+        }
+        Assert.assertTrue("Navigation failed for " + failures.size() + " of " + pages.size() + " pages: " + failures,
+                failures.isEmpty());
+    }
+}
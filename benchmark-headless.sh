@@ -0,0 +1,46 @@
+#!/bin/bash
+
+#
+# Compares wall-clock time of a fixed subset of tests run in headed and in headless browser.
+# Both runs use Chrome, the headless profile supports nothing else (see README).
+# Server is expected to be already started, headed run needs a display (DISPLAY).
+#
+# Env args:
+# - JBOSS_DIST: path to the server home folder
+# - SERVER_MODE (optional): standalone || domain, standalone by default
+# - BENCHMARK_TESTS (optional): -Dtest value of the subset to run
+# - BENCHMARK_ARGS (optional): additional maven arguments
+#
+
+if [ "${JBOSS_DIST}x" == "x" ] ; then
+   echo "JBOSS_DIST has to be specified!"
+   exit 1
+fi
+
+if [ "${SERVER_MODE}x" == "x" ] ; then
+   export SERVER_MODE=standalone
+fi
+
+if [ "${BENCHMARK_TESTS}x" == "x" ] ; then
+   export BENCHMARK_TESTS="EntryPointTestCase,ModuleTestCase,NeedHelpTestCase,MailSessionTestCase,BufferPoolTestCase,WorkerTestCase,HTTPListenerTestCase"
+fi
+
+function runSubset {
+  local start=$(date +%s)
+  mvn test -Pbasic,$SERVER_MODE$2 -Djboss.dist=$JBOSS_DIST -Dbrowser=chrome -Dtest=$BENCHMARK_TESTS $BENCHMARK_ARGS > target/benchmark-$1.log 2>&1
+  local result=$?
+  local end=$(date +%s)
+  echo $((end - start)) $result
+}
+
+mkdir -p target
+
+read headed headedResult <<< $(runSubset headed "")
+read headless headlessResult <<< $(runSubset headless ",headless")
+
+echo "Tests: $BENCHMARK_TESTS"
+echo "Headed:   ${headed} s (exit code $headedResult, see target/benchmark-headed.log)"
+echo "Headless: ${headless} s (exit code $headlessResult, see target/benchmark-headless.log)"
+if [ $headed -gt 0 ] ; then
+   echo "Headless run took $((headless * 100 / headed)) % of headed run"
+fi
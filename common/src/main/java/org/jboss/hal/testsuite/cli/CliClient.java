@@ -25,12 +25,19 @@ package org.jboss.hal.testsuite.cli;
 import org.jboss.as.cli.scriptsupport.CLI;
 import org.jboss.dmr.ModelNode;
 import org.jboss.dmr.ModelType;
+import org.jboss.dmr.Property;
+import org.jboss.hal.testsuite.util.Console;
+import org.jboss.hal.testsuite.util.ModelPoller;
+import org.jboss.hal.testsuite.util.ResourceDescriptionRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.regex.Pattern;
 
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.*;
 
@@ -44,7 +51,12 @@ public class CliClient {
 
     private static final Logger log = LoggerFactory.getLogger(CliClient.class);
 
+    private static final Pattern READ_ONLY_COMMAND = Pattern.compile("^\\s*(?:(?:/[^:]*)?:(?:read-[\\w\\-]+|whoami"
+            + "|query|validate-address|validate-operation|resolve-expression)|(?:ls|pwd|read-attribute|read-operation"
+            + "|version))(?![\\w\\-]).*", Pattern.DOTALL);
+
     private final CliConfiguration cliConfig;
+    private ResourceDescriptionRegistry descriptionRegistry;
 
     CliClient() {
         cliConfig = new CliConfiguration();
@@ -62,6 +74,12 @@ public class CliClient {
      * @return CLI.Result object containing request, response and success status of the operation all in one
      */
     public CLI.Result executeCommand(String command) {
+        if (breaksConnection(command)) {
+            Console.requireFullReload();
+        }
+        if (CliSessionPool.isEnabled()) {
+            return executePooledCommand(command);
+        }
         CLI cli = CLI.newInstance();
 
         log.trace("Connecting to native interface (" + cliConfig.getHost() + ":" + cliConfig.getPort() + ") via CLI");
@@ -78,6 +96,60 @@ public class CliClient {
         return result;
     }
 
+    /**
+     * Executes command on a session taken from {@link CliSessionPool}. If the reused session turns out to be
+     * disconnected (e.g. server was reloaded meanwhile), it is dropped. A read-only command is then retried once on
+     * a fresh session, any other command fails, since it is not known whether it was executed before the connection
+     * broke. Sessions used for reload or shutdown commands are never given back to the pool.
+     */
+    private CLI.Result executePooledCommand(String command) {
+        CliSessionPool pool = CliSessionPool.getInstance();
+        CLI cli = pool.borrow(cliConfig);
+        CLI.Result result;
+
+        log.debug("Running cli command: " + command);
+        try {
+            result = cli.cmd(command);
+        } catch (IllegalStateException e) {
+            pool.invalidate(cli);
+            if (!isReadOnly(command)) {
+                throw e;
+            }
+            log.debug("Pooled CLI session is not usable anymore, reconnecting", e);
+            cli = pool.borrow(cliConfig);
+            try {
+                result = cli.cmd(command);
+            } catch (RuntimeException ex) {
+                pool.invalidate(cli);
+                throw ex;
+            }
+        } catch (RuntimeException e) {
+            pool.invalidate(cli);
+            throw e;
+        }
+
+        log.info("Command {} finished with {}", result.getCliCommand(), result.isSuccess() ? "success" : "failure" );
+        log.trace("The command {} ended with response {}", result.getCliCommand(), result.getResponse());
+
+        if (breaksConnection(command)) {
+            pool.invalidate(cli);
+            pool.invalidateAll(cliConfig);
+        } else {
+            pool.release(cliConfig, cli);
+        }
+        return result;
+    }
+
+    private static boolean isReadOnly(String command) {
+        return READ_ONLY_COMMAND.matcher(command).matches();
+    }
+
+    private static boolean breaksConnection(String command) {
+        String trimmed = command.trim();
+        return trimmed.startsWith("reload") || trimmed.startsWith("shutdown")
+                || trimmed.contains(":reload") || trimmed.contains(":shutdown");
+    }
+
     /**
      * Execute the command via CLI and returns its response as ModelNode.
      *
@@ -107,17 +179,7 @@ public class CliClient {
      * @return Response <code>true</code>, if the command execution was successful, else <code>false</code>.
      */
     public boolean executeForSuccess(String command, int timeout) {
-        long start = System.currentTimeMillis();
-        boolean successful = executeCommand(command).isSuccess();
-        if (timeout > 0) {
-            while (!successful) {
-                if (System.currentTimeMillis() >= start + timeout) {
-                    throw new TimeoutException(command, timeout);
-                }
-                Library.letsSleep(200);
-            }
-        }
-        return successful;
+        return executeUntilSuccess(command, timeout).isSuccess();
     }
 
 
@@ -132,19 +194,24 @@ public class CliClient {
     }
 
     public String executeForResult(String command, int timeout) {
-        long start = System.currentTimeMillis();
-        CLI.Result result = executeCommand(command);
-        if (timeout > 0) {
-            while (!result.isSuccess()) {
-                if (System.currentTimeMillis() >= start + timeout) {
-                    throw new TimeoutException(command, timeout);
-                }
-                Library.letsSleep(200);
-            }
-        }
+        CLI.Result result = executeUntilSuccess(command, timeout);
         return result.getResponse().get(RESULT).asString();
     }
 
+    /**
+     * Executes the command repeatedly until it succeeds, just once if timeout is not positive.
+     *
+     * @throws TimeoutException if the command did not succeed within positive timeout
+     */
+    private CLI.Result executeUntilSuccess(String command, int timeout) {
+        CLI.Result result = ModelPoller.poll(ModelPoller.resourceType(command), timeout,
+                () -> executeCommand(command), CLI.Result::isSuccess);
+        if (timeout > 0 && !result.isSuccess()) {
+            throw new TimeoutException(command, timeout);
+        }
+        return result;
+    }
+
     /**
      * Give access to connected cli
      * @return cli
@@ -198,13 +265,25 @@ public class CliClient {
      * @return type of the specified attribute or null if attribute doesn't exist
      */
     public ModelType readAttributeType(String address, String name) {
-        String command = CliUtils.buildCommand(address, ":read-resource-description");
-        CLI.Result res = executeCommand(command);
-        if (res.isSuccess() && res.getResponse().get(RESULT).get(ATTRIBUTES).hasDefined(name)) {
-            return ModelType.valueOf(res.getResponse().get(RESULT).get(ATTRIBUTES).get(name).get(TYPE).asString().toUpperCase());
-        } else {
-            return null;
+        try {
+            return getDescriptionRegistry().getAttributeType(address, name);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Gives access to cached resource descriptions, descriptions not cached yet are read via this client.
+     */
+    public synchronized ResourceDescriptionRegistry getDescriptionRegistry() {
+        if (descriptionRegistry == null) {
+            try {
+                descriptionRegistry = ResourceDescriptionRegistry.of(new DescriptionSource());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
         }
+        return descriptionRegistry;
     }
 
     /**
@@ -435,5 +514,28 @@ public class CliClient {
     public String getHost() {
         return cliConfig.getHost();
     }
-}
 
+    /**
+     * Reads resource descriptions via CLI commands, so that addresses are adjusted the same way as for any other
+     * command (e.g. profile in domain).
+     */
+    private final class DescriptionSource implements ResourceDescriptionRegistry.Source {
+
+        @Override
+        public ModelNode readRootAttributes() {
+            CLI.Result result = executeCommand(":read-resource(attributes-only=true)");
+            return result.isSuccess() ? result.getResponse().get(RESULT) : new ModelNode();
+        }
+
+        @Override
+        public ModelNode readDescription(ModelNode address) {
+            StringBuilder path = new StringBuilder();
+            for (Property segment : address.asPropertyList()) {
+                path.append('/').append(segment.getName()).append('=').append(segment.getValue().asString());
+            }
+            CLI.Result result = executeCommand(CliUtils.buildCommand(path.toString(), ":read-resource-description",
+                    new String[]{"recursive-depth=1"}));
+            return result.isSuccess() ? result.getResponse().get(RESULT) : null;
+        }
+    }
+}
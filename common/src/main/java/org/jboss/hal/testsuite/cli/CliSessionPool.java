@@ -0,0 +1,224 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.hal.testsuite.cli;
+
+import org.jboss.as.cli.scriptsupport.CLI;
+import org.jboss.hal.testsuite.util.ConfigUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * JVM wide pool of connected {@link CLI} sessions used by {@link CliClient} when
+ * <code>suite.cli.session.pool</code> is enabled. Sessions are connected lazily on first use, kept open between
+ * commands and dropped whenever the connection gets broken (e.g. by reload or restart), so the next command connects
+ * again on its own. Besides reloads executed via {@link CliClient}, all idle sessions are dropped after reloads executed
+ * via creaper clients of {@link org.jboss.hal.testsuite.creaper.ManagementClientProvider} and after recycling a pooled
+ * server.
+ *
+ * @deprecated use creaper
+ */
+public final class CliSessionPool {
+
+    private static final Logger log = LoggerFactory.getLogger(CliSessionPool.class);
+
+    private static final boolean ENABLED = Boolean.parseBoolean(ConfigUtils.get("suite.cli.session.pool", "false"));
+    private static final CliSessionPool INSTANCE = new CliSessionPool();
+
+    private final Map<String, Deque<CLI>> idleSessions = new HashMap<>();
+    private final AtomicLong connects = new AtomicLong();
+    private final AtomicLong reuseHits = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+    private final AtomicLong handshakeNanos = new AtomicLong();
+
+    private CliSessionPool() {
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            closeAll();
+            if (connects.get() > 0) {
+                log.info("CLI session pool statistics: {}", getStatistics());
+            }
+        }, "cli-session-pool-shutdown"));
+    }
+
+    public static CliSessionPool getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * @return true if {@link CliClient} should execute its commands via pooled sessions
+     */
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * Takes an idle session for given configuration out of the pool or connects a new one if there is none.
+     *
+     * @param config configuration of the native interface to connect to
+     * @return connected CLI session which must be given back via {@link #release(CliConfiguration, CLI)} or
+     * {@link #invalidate(CLI)}
+     */
+    public CLI borrow(CliConfiguration config) {
+        CLI cli = null;
+        synchronized (idleSessions) {
+            Deque<CLI> sessions = idleSessions.get(key(config));
+            if (sessions != null) {
+                cli = sessions.pollFirst();
+            }
+        }
+        if (cli != null) {
+            reuseHits.incrementAndGet();
+            return cli;
+        }
+        return connect(config);
+    }
+
+    /**
+     * Gives the session back to the pool for later reuse.
+     */
+    public void release(CliConfiguration config, CLI cli) {
+        synchronized (idleSessions) {
+            idleSessions.computeIfAbsent(key(config), k -> new ArrayDeque<>()).offerFirst(cli);
+        }
+    }
+
+    /**
+     * Disconnects the session and drops it, use when the connection is not usable anymore.
+     */
+    public void invalidate(CLI cli) {
+        invalidations.incrementAndGet();
+        disconnectQuietly(cli);
+    }
+
+    /**
+     * Disconnects and drops all idle sessions connected to given native interface, e.g. after reload or restart
+     * of the server.
+     */
+    public void invalidateAll(CliConfiguration config) {
+        Deque<CLI> sessions;
+        synchronized (idleSessions) {
+            sessions = idleSessions.remove(key(config));
+        }
+        if (sessions != null) {
+            sessions.forEach(this::invalidate);
+        }
+    }
+
+    /**
+     * Disconnects all idle sessions.
+     */
+    public void closeAll() {
+        List<CLI> sessions = new ArrayList<>();
+        synchronized (idleSessions) {
+            idleSessions.values().forEach(sessions::addAll);
+            idleSessions.clear();
+        }
+        sessions.forEach(this::disconnectQuietly);
+    }
+
+    public Statistics getStatistics() {
+        return new Statistics(connects.get(), reuseHits.get(), invalidations.get(), handshakeNanos.get() / 1000000);
+    }
+
+    private CLI connect(CliConfiguration config) {
+        CLI cli = CLI.newInstance();
+        log.trace("Connecting to native interface (" + config.getHost() + ":" + config.getPort() + ") via CLI");
+        long start = System.nanoTime();
+        cli.connect(config.getHost(), config.getPort(), config.getUser(), config.getPassword());
+        handshakeNanos.addAndGet(System.nanoTime() - start);
+        connects.incrementAndGet();
+        return cli;
+    }
+
+    private void disconnectQuietly(CLI cli) {
+        try {
+            cli.disconnect();
+            log.trace("Successfully disconnected");
+        } catch (RuntimeException e) {
+            log.debug("Unable to disconnect pooled CLI session", e);
+        }
+    }
+
+    private static String key(CliConfiguration config) {
+        return config.getUser() + "@" + config.getHost() + ":" + config.getPort();
+    }
+
+    /**
+     * Snapshot of the pool counters.
+     */
+    public static final class Statistics {
+
+        private final long connects;
+        private final long reuseHits;
+        private final long invalidations;
+        private final long handshakeMillis;
+
+        Statistics(long connects, long reuseHits, long invalidations, long handshakeMillis) {
+            this.connects = connects;
+            this.reuseHits = reuseHits;
+            this.invalidations = invalidations;
+            this.handshakeMillis = handshakeMillis;
+        }
+
+        /**
+         * @return number of native interface handshakes done by the pool
+         */
+        public long getConnects() {
+            return connects;
+        }
+
+        /**
+         * @return number of commands which were executed on an already connected session
+         */
+        public long getReuseHits() {
+            return reuseHits;
+        }
+
+        /**
+         * @return number of sessions dropped because of broken connection, reload or restart
+         */
+        public long getInvalidations() {
+            return invalidations;
+        }
+
+        /**
+         * @return total time spent connecting to native interface in milliseconds
+         */
+        public long getHandshakeMillis() {
+            return handshakeMillis;
+        }
+
+        @Override
+        public String toString() {
+            return "connects=" + connects + ", reuseHits=" + reuseHits + ", invalidations=" + invalidations
+                    + ", handshakeMillis=" + handshakeMillis;
+        }
+    }
+}
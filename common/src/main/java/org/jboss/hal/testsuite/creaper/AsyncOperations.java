@@ -0,0 +1,253 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+
+package org.jboss.hal.testsuite.creaper;
+
+import org.jboss.dmr.ModelNode;
+import org.jboss.hal.testsuite.util.ConfigUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wildfly.extras.creaper.core.online.ModelNodeResult;
+import org.wildfly.extras.creaper.core.online.OnlineManagementClient;
+import org.wildfly.extras.creaper.core.online.operations.Address;
+import org.wildfly.extras.creaper.core.online.operations.OperationException;
+import org.wildfly.extras.creaper.core.online.operations.Operations;
+import org.wildfly.extras.creaper.core.online.operations.Values;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executes management operations asynchronously, so that fixture setup and teardown doesn't wait for each of dozens of
+ * independent operations one after another. Every operation returns a future and may depend on futures of other
+ * operations, it is executed only after all of them have succeeded (e.g. key-manager after the key-store it
+ * references). If a dependency fails, the dependent operation is not executed at all.
+ * <p/>
+ * Operations are executed via {@link Operations} of given client by up to <code>suite.management.async.threads</code>
+ * threads (default 4), so address adjustments of the client (profile in domain, resource locking in parallel runs) apply
+ * as usual. Unsuccessful results are treated as failures.
+ * <p/>
+ * Usage:
+ * <pre>
+ * try (AsyncOperations async = new AsyncOperations(client)) {
+ *     CompletableFuture&lt;ModelNodeResult&gt; keyStore = async.add(keyStoreAddress, keyStoreValues);
+ *     async.add(keyManagerAddress, keyManagerValues, keyStore);
+ *     async.removeIfExists(unrelatedAddress);
+ *     async.joinAll();
+ * }
+ * </pre>
+ */
+public final class AsyncOperations implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(AsyncOperations.class);
+
+    private static final int THREADS = Integer.parseInt(ConfigUtils.get("suite.management.async.threads", "4"));
+    private static final AtomicInteger POOL_COUNTER = new AtomicInteger();
+
+    private final Operations ops;
+    private final ExecutorService executor;
+    private final List<CompletableFuture<?>> submitted = new ArrayList<>();
+
+    public AsyncOperations(OnlineManagementClient client) {
+        this.ops = new Operations(client);
+        int pool = POOL_COUNTER.incrementAndGet();
+        AtomicInteger threadCounter = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(Math.max(1, THREADS), runnable -> {
+            Thread thread = new Thread(runnable, "async-operations-" + pool + "-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Submits any call of {@link Operations}, it is executed once all dependencies have succeeded.
+     *
+     * @param call         call to execute
+     * @param dependencies futures of operations which have to succeed first
+     * @return future of the call result
+     */
+    public <T> CompletableFuture<T> submit(Call<T> call, CompletableFuture<?>... dependencies) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        synchronized (submitted) {
+            submitted.add(future);
+        }
+        CompletableFuture.allOf(dependencies).whenComplete((ignored, failure) -> {
+            if (failure != null) {
+                future.completeExceptionally(new OperationException("Not executed since its dependency failed",
+                        unwrap(failure)));
+                return;
+            }
+            try {
+                executor.execute(() -> {
+                    try {
+                        future.complete(call.call(ops));
+                    } catch (Throwable e) {
+                        future.completeExceptionally(e);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                future.completeExceptionally(e);
+            }
+        });
+        return future;
+    }
+
+    public CompletableFuture<ModelNodeResult> add(Address address, CompletableFuture<?>... dependencies) {
+        return submit(o -> successful(o.add(address), "add", address), dependencies);
+    }
+
+    public CompletableFuture<ModelNodeResult> add(Address address, Values parameters,
+            CompletableFuture<?>... dependencies) {
+        return submit(o -> successful(o.add(address, parameters), "add", address), dependencies);
+    }
+
+    public CompletableFuture<ModelNodeResult> remove(Address address, CompletableFuture<?>... dependencies) {
+        return submit(o -> successful(o.remove(address), "remove", address), dependencies);
+    }
+
+    /**
+     * @return future of whether the resource existed
+     */
+    public CompletableFuture<Boolean> removeIfExists(Address address, CompletableFuture<?>... dependencies) {
+        return submit(o -> o.removeIfExists(address), dependencies);
+    }
+
+    public CompletableFuture<ModelNodeResult> writeAttribute(Address address, String name, ModelNode value,
+            CompletableFuture<?>... dependencies) {
+        return submit(o -> successful(o.writeAttribute(address, name, value), "write-attribute " + name, address),
+                dependencies);
+    }
+
+    public CompletableFuture<ModelNodeResult> writeAttribute(Address address, String name, String value,
+            CompletableFuture<?>... dependencies) {
+        return writeAttribute(address, name, new ModelNode(value), dependencies);
+    }
+
+    public CompletableFuture<ModelNodeResult> invoke(String operation, Address address, Values parameters,
+            CompletableFuture<?>... dependencies) {
+        return submit(o -> successful(o.invoke(operation, address, parameters), operation, address), dependencies);
+    }
+
+    /**
+     * Waits until all operations submitted so far are finished.
+     *
+     * @throws IOException        first I/O failure of any operation
+     * @throws OperationException first failure of any operation, other failures are added as suppressed
+     */
+    public void joinAll() throws IOException, OperationException {
+        List<CompletableFuture<?>> futures;
+        synchronized (submitted) {
+            futures = new ArrayList<>(submitted);
+            submitted.clear();
+        }
+        Set<Throwable> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        Throwable first = null;
+        for (CompletableFuture<?> future : futures) {
+            try {
+                future.join();
+            } catch (CompletionException | CancellationException e) {
+                Throwable failure = unwrap(e);
+                if (isReported(failure, seen)) {
+                    continue; // failed dependency, its failure is reported already
+                }
+                seen.add(failure);
+                if (first == null) {
+                    first = failure;
+                } else {
+                    first.addSuppressed(failure);
+                }
+            }
+        }
+        if (first == null) {
+            return;
+        }
+        log.debug("{} of {} asynchronous operations failed", seen.size(), futures.size());
+        if (first instanceof IOException) {
+            throw (IOException) first;
+        }
+        if (first instanceof OperationException) {
+            throw (OperationException) first;
+        }
+        if (first instanceof RuntimeException) {
+            throw (RuntimeException) first;
+        }
+        if (first instanceof Error) {
+            throw (Error) first;
+        }
+        throw new OperationException("Asynchronous operation failed", first);
+    }
+
+    /**
+     * Doesn't wait for running operations, call {@link #joinAll()} first.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    private static ModelNodeResult successful(ModelNodeResult result, String operation, Address address)
+            throws OperationException {
+        if (!result.isSuccess()) {
+            throw new OperationException("Operation " + operation + " at " + address + " failed: "
+                    + result.get("failure-description").asString());
+        }
+        return result;
+    }
+
+    private static boolean isReported(Throwable failure, Set<Throwable> seen) {
+        for (Throwable cause = failure.getCause(); cause != null; cause = cause.getCause()) {
+            if (seen.contains(cause)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Throwable unwrap(Throwable failure) {
+        Throwable result = failure;
+        while ((result instanceof CompletionException || result instanceof CancellationException)
+                && result.getCause() != null) {
+            result = result.getCause();
+        }
+        return result;
+    }
+
+    /**
+     * Call of {@link Operations}.
+     */
+    @FunctionalInterface
+    public interface Call<T> {
+        T call(Operations ops) throws Exception;
+    }
+}
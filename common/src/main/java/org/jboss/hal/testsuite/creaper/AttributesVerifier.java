@@ -0,0 +1,217 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+
+package org.jboss.hal.testsuite.creaper;
+
+import org.jboss.dmr.ModelNode;
+import org.jboss.dmr.Property;
+import org.jboss.hal.testsuite.dmr.ModelNodeGenerator;
+import org.jboss.hal.testsuite.util.ModelPoller;
+import org.junit.Assert;
+import org.wildfly.extras.creaper.core.online.Constants;
+import org.wildfly.extras.creaper.core.online.ModelNodeResult;
+import org.wildfly.extras.creaper.core.online.OnlineManagementClient;
+import org.wildfly.extras.creaper.core.online.operations.Address;
+import org.wildfly.extras.creaper.core.online.operations.Batch;
+import org.wildfly.extras.creaper.core.online.operations.Operations;
+import org.wildfly.extras.creaper.core.online.operations.Values;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Verifies values of many attributes, possibly of several resources, at once. Every poll reads all involved resources
+ * by a single <code>read-resource</code> operation (a composite operation when more resources are involved), so
+ * checking a whole form after one save costs one round trip per poll instead of one per attribute. Verification
+ * returns as soon as all attributes have propagated to the model, otherwise all mismatches found by the last poll are
+ * reported in a single assertion error.
+ * <p/>
+ * Usage:
+ * <pre>
+ * new AttributesVerifier(client)
+ *         .expect(address, "max-pool-size", 20)
+ *         .expect(address, "min-pool-size", 5)
+ *         .expect(otherAddress, "enabled", true)
+ *         .verify();
+ * </pre>
+ *
+ * @see ResourceVerifier#verifyAttributes(Map)
+ */
+public class AttributesVerifier {
+
+    private static final String STEP_PREFIX = "step-";
+
+    private final Operations ops;
+    private final int timeout;
+    private final Map<String, ResourceExpectation> expectations = new LinkedHashMap<>();
+
+    public AttributesVerifier(OnlineManagementClient client) {
+        this(client, ResourceVerifier.DEFAULT_TIMEOUT);
+    }
+
+    /**
+     * @param timeout - how long to wait for GUI change to be propagated to model in milis
+     */
+    public AttributesVerifier(OnlineManagementClient client, int timeout) {
+        this.ops = new Operations(client);
+        this.timeout = timeout;
+    }
+
+    /**
+     * Adds expected value of attribute of given resource.
+     * @param expectedValue - to create this parameter value you can use {@link ModelNodeGenerator}, undefined node
+     * means the attribute is expected to be undefined
+     */
+    public AttributesVerifier expect(Address address, String attributeName, ModelNode expectedValue) {
+        expectations.computeIfAbsent(address.toString(), key -> new ResourceExpectation(address))
+                .attributes.put(attributeName, expectedValue);
+        return this;
+    }
+
+    /**
+     * Adds expected values of attributes of given resource.
+     */
+    public AttributesVerifier expect(Address address, Map<String, ModelNode> expectedValues) {
+        expectedValues.forEach((attributeName, expectedValue) -> expect(address, attributeName, expectedValue));
+        return this;
+    }
+
+    public AttributesVerifier expect(Address address, String attributeName, String expectedValue) {
+        return expect(address, attributeName, new ModelNode(expectedValue));
+    }
+
+    public AttributesVerifier expect(Address address, String attributeName, boolean expectedValue) {
+        return expect(address, attributeName, new ModelNode(expectedValue));
+    }
+
+    public AttributesVerifier expect(Address address, String attributeName, int expectedValue) {
+        return expect(address, attributeName, new ModelNode(expectedValue));
+    }
+
+    public AttributesVerifier expect(Address address, String attributeName, long expectedValue) {
+        return expect(address, attributeName, new ModelNode(expectedValue));
+    }
+
+    /**
+     * Adds expectation that the attribute of given resource is undefined.
+     */
+    public AttributesVerifier expectUndefined(Address address, String attributeName) {
+        return expect(address, attributeName, new ModelNode());
+    }
+
+    /**
+     * Verifies all expected values in model.
+     */
+    public void verify() throws IOException {
+        verify("");
+    }
+
+    /**
+     * Verifies all expected values in model.
+     * @param errorMessageSuffix is intended to be used for e.g. passing related tracked issue.
+     */
+    public void verify(String errorMessageSuffix) throws IOException {
+        if (expectations.isEmpty()) {
+            return;
+        }
+        String resourceTypes = expectations.values().stream()
+                .map(resource -> ModelPoller.resourceType(resource.address.toString()))
+                .distinct()
+                .collect(Collectors.joining(", "));
+        List<String> mismatches = ModelPoller.poll(resourceTypes, timeout, this::findMismatches, List::isEmpty);
+
+        if (!mismatches.isEmpty()) {
+            Assert.fail(mismatches.size() + " attribute value(s) different in model!" + System.lineSeparator()
+                    + String.join(System.lineSeparator(), mismatches) + System.lineSeparator() + errorMessageSuffix);
+        }
+    }
+
+    private List<String> findMismatches() throws IOException {
+        List<ResourceExpectation> resources = new ArrayList<>(expectations.values());
+        List<String> mismatches = new ArrayList<>();
+        if (resources.size() == 1) {
+            ResourceExpectation resource = resources.get(0);
+            ModelNodeResult result = ops.invoke(Constants.READ_RESOURCE_OPERATION, resource.address, readParams());
+            resource.compare(result.isSuccess() ? result.value() : null, result, mismatches);
+            return mismatches;
+        }
+
+        Batch batch = new Batch();
+        for (ResourceExpectation resource : resources) {
+            batch.invoke(Constants.READ_RESOURCE_OPERATION, resource.address, readParams());
+        }
+        ModelNodeResult result = ops.batch(batch);
+        ModelNode steps = result.get(Constants.RESULT);
+        for (int i = 0; i < resources.size(); i++) {
+            ModelNode step = steps.isDefined() ? steps.get(STEP_PREFIX + (i + 1)) : new ModelNode();
+            ModelNode value = step.hasDefined(Constants.OUTCOME) && step.get(Constants.OUTCOME).asString()
+                    .equals(Constants.SUCCESS) ? step.get(Constants.RESULT) : null;
+            resources.get(i).compare(value, step.hasDefined(Constants.FAILURE_DESCRIPTION) ? step : result,
+                    mismatches);
+        }
+        return mismatches;
+    }
+
+    private static Values readParams() {
+        return Values.of("include-defaults", true).and("include-runtime", true).and("attributes-only", true);
+    }
+
+    private static final class ResourceExpectation {
+
+        private final Address address;
+        private final Map<String, ModelNode> attributes = new LinkedHashMap<>();
+
+        private ResourceExpectation(Address address) {
+            this.address = address;
+        }
+
+        /**
+         * @param actual attributes read from model or null if the resource could not be read
+         * @param failure result holding failure description when the resource could not be read
+         */
+        private void compare(ModelNode actual, ModelNode failure, List<String> mismatches) {
+            if (actual == null) {
+                mismatches.add("Resource '" + address + "' could not be read: "
+                        + failure.get(Constants.FAILURE_DESCRIPTION).asString());
+                return;
+            }
+            Map<String, ModelNode> actualValues = new LinkedHashMap<>();
+            for (Property property : actual.asPropertyList()) {
+                actualValues.put(property.getName(), property.getValue());
+            }
+            for (Map.Entry<String, ModelNode> expected : attributes.entrySet()) {
+                if (!actualValues.containsKey(expected.getKey())) {
+                    mismatches.add("'" + address + "' has no attribute '" + expected.getKey() + "'");
+                } else if (!expected.getValue().equals(actualValues.get(expected.getKey()))) {
+                    mismatches.add("'" + address + "' attribute '" + expected.getKey() + "' expected: <"
+                            + expected.getValue().asString() + "> but was: <"
+                            + actualValues.get(expected.getKey()).asString() + ">");
+                }
+            }
+        }
+    }
+}
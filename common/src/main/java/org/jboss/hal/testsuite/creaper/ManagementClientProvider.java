@@ -1,15 +1,20 @@
 package org.jboss.hal.testsuite.creaper;
 
 import org.jboss.hal.testsuite.util.ConfigUtils;
+import org.jboss.hal.testsuite.util.ParallelExecution;
 import org.wildfly.extras.creaper.core.ManagementClient;
 import org.wildfly.extras.creaper.core.online.OnlineManagementClient;
 import org.wildfly.extras.creaper.core.online.OnlineOptions;
 
 /**
- * Provider for Creaper's OnlineManagementClient
+ * Provider for Creaper's OnlineManagementClient. When <code>suite.management.client.shared</code> is enabled, the
+ * clients are leases of JVM wide shared clients from {@link ManagementClientRegistry} instead of fresh connections.
+ * In parallel execution the clients lock resources they change, see {@link ResourceLockingClient}. Reloads executed via
+ * any of the clients mark the console for full reload, see {@link ReloadTrackingClient}.
  */
 public class ManagementClientProvider {
 
+    private static final boolean SHARED = Boolean.parseBoolean(ConfigUtils.get("suite.management.client.shared", "false"));
 
     /**
      * Creates default OnlineManagementClient for domain for the specified profile
@@ -18,11 +23,10 @@ public class ManagementClientProvider {
      * @return Initialized domain OnlineManagementClient for specified profile, don't forget to close it
      */
     public static OnlineManagementClient withProfile(String profile) {
-        return ManagementClient.onlineLazy(OnlineOptions.domain()
-                .forHost(ConfigUtils.getDefaultHost()).forProfile(profile).build()
-                .hostAndPort(System.getProperty("as.managementAddress", "localhost"),
-                        Integer.parseInt(System.getProperty("as.managementPort", "9990")))
-                .build());
+        if (SHARED) {
+            return guarded(leaseDomainClient(ConfigUtils.getDefaultHost(), profile));
+        }
+        return guarded(createDomainClient(ConfigUtils.getDefaultHost(), profile));
     }
 
     /**
@@ -31,23 +35,58 @@ public class ManagementClientProvider {
      * @return Initialized OnlineManagementClient, don't forget to close it
      */
     public static OnlineManagementClient createOnlineManagementClient() {
-        OnlineManagementClient managementClient = null;
+        if (SHARED) {
+            return guarded(leaseOnlineManagementClient());
+        }
+        if (ConfigUtils.isDomain()) {
+            return guarded(createDomainClient(ConfigUtils.getDefaultHost(), ConfigUtils.getDefaultProfile()));
+        }
+        return guarded(createStandaloneClient());
+    }
+
+    /**
+     * Leases OnlineManagementClient shared across the whole JVM regardless of <code>suite.management.client.shared</code>
+     * (automatically decides whether it is client for domain or standalone server). Closing the lease keeps the
+     * underlying connection open for next leases.
+     *
+     * @return lease of shared OnlineManagementClient, don't forget to close it
+     */
+    public static OnlineManagementClient leaseOnlineManagementClient() {
         if (ConfigUtils.isDomain()) {
-            String profile = ConfigUtils.getDefaultProfile();
-            String host = ConfigUtils.getDefaultHost();
-            managementClient = ManagementClient.onlineLazy(OnlineOptions.domain()
-                    .forHost(host).forProfile(profile).build()
-                    .hostAndPort(System.getProperty("as.managementAddress", "localhost"),
-                            Integer.parseInt(System.getProperty("as.managementPort", "9990")))
-                    .build());
-        } else {
-            managementClient = ManagementClient.onlineLazy(OnlineOptions.standalone().
-                    hostAndPort(System.getProperty("as.managementAddress", "localhost"),
-                            Integer.parseInt(System.getProperty("as.managementPort", "9990")))
-                    .build());
+            return leaseDomainClient(ConfigUtils.getDefaultHost(), ConfigUtils.getDefaultProfile());
         }
+        return ManagementClientRegistry.getInstance().lease("standalone@" + getManagementAddress() + ":"
+                + getManagementPort(), ManagementClientProvider::createStandaloneClient);
+    }
+
+    private static OnlineManagementClient guarded(OnlineManagementClient client) {
+        return ParallelExecution.isEnabled() ? ResourceLockingClient.wrap(client) : client;
+    }
+
+    private static OnlineManagementClient leaseDomainClient(String host, String profile) {
+        return ManagementClientRegistry.getInstance().lease("domain/host=" + host + "/profile=" + profile + "@"
+                + getManagementAddress() + ":" + getManagementPort(), () -> createDomainClient(host, profile));
+    }
+
+    private static OnlineManagementClient createDomainClient(String host, String profile) {
+        return ReloadTrackingClient.wrap(ManagementClient.onlineLazy(OnlineOptions.domain()
+                .forHost(host).forProfile(profile).build()
+                .hostAndPort(getManagementAddress(), getManagementPort())
+                .build()));
+    }
+
+    private static OnlineManagementClient createStandaloneClient() {
+        return ReloadTrackingClient.wrap(ManagementClient.onlineLazy(OnlineOptions.standalone()
+                .hostAndPort(getManagementAddress(), getManagementPort())
+                .build()));
+    }
+
+    private static String getManagementAddress() {
+        return System.getProperty("as.managementAddress", "localhost");
+    }
 
-        return managementClient;
+    private static int getManagementPort() {
+        return Integer.parseInt(System.getProperty("as.managementPort", "9990"));
     }
 
 }
@@ -0,0 +1,198 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.hal.testsuite.creaper;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wildfly.extras.creaper.core.online.OnlineManagementClient;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * JVM wide registry of shared {@link OnlineManagementClient}s. Clients are keyed by mode, host, profile and management
+ * endpoint and handed out as leases. Closing a lease only decrements the reference count, the underlying connection
+ * is kept open for the next lease and closed at JVM shutdown. If an operation fails on I/O level (typically because
+ * the server was reloaded or restarted behind the client's back), the shared client is reconnected. Read-only
+ * operations are then retried once, any other call fails, since it might have been applied already.
+ */
+public final class ManagementClientRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(ManagementClientRegistry.class);
+
+    private static final int RECONNECT_TIMEOUT_SECONDS = 60;
+    private static final ManagementClientRegistry INSTANCE = new ManagementClientRegistry();
+
+    private final Map<String, SharedClient> clients = new HashMap<>();
+
+    private ManagementClientRegistry() {
+        Runtime.getRuntime().addShutdownHook(new Thread(this::closeAll, "management-client-registry-shutdown"));
+    }
+
+    public static ManagementClientRegistry getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Leases shared client for given key. The client is created via given factory when there is none yet.
+     *
+     * @param key     identification of the client, e.g. mode, host, profile and management endpoint
+     * @param factory creates the underlying client, called at most once per key
+     * @return lease of the shared client, close it when you are done with it
+     */
+    public OnlineManagementClient lease(String key, Supplier<OnlineManagementClient> factory) {
+        SharedClient shared;
+        synchronized (clients) {
+            shared = clients.computeIfAbsent(key, k -> {
+                log.debug("Creating shared management client for {}", k);
+                return new SharedClient(k, factory.get());
+            });
+            shared.leases++;
+            shared.totalLeases++;
+        }
+        return (OnlineManagementClient) Proxy.newProxyInstance(OnlineManagementClient.class.getClassLoader(),
+                new Class<?>[]{OnlineManagementClient.class}, new Lease(shared));
+    }
+
+    /**
+     * Closes all shared clients. Leases which are still open become unusable.
+     */
+    public void closeAll() {
+        List<SharedClient> toClose;
+        synchronized (clients) {
+            toClose = new ArrayList<>(clients.values());
+            clients.clear();
+        }
+        for (SharedClient shared : toClose) {
+            log.debug("Closing shared management client for {} ({} leases in total, {} still open)", shared.key,
+                    shared.totalLeases, shared.leases);
+            try {
+                shared.delegate.close();
+            } catch (IOException e) {
+                log.warn("Unable to close shared management client for " + shared.key, e);
+            }
+        }
+    }
+
+    private static final class SharedClient {
+
+        private final String key;
+        private final OnlineManagementClient delegate;
+        private int leases;
+        private long totalLeases;
+
+        private SharedClient(String key, OnlineManagementClient delegate) {
+            this.key = key;
+            this.delegate = delegate;
+        }
+    }
+
+    private static final class Lease implements InvocationHandler {
+
+        private final SharedClient shared;
+        private boolean released;
+
+        private Lease(SharedClient shared) {
+            this.shared = shared;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            int paramCount = method.getParameterCount();
+            if (name.equals("close") && paramCount == 0) {
+                release();
+                return null;
+            }
+            if (name.equals("equals") && paramCount == 1) {
+                return proxy == args[0];
+            }
+            if (name.equals("hashCode") && paramCount == 0) {
+                return System.identityHashCode(proxy);
+            }
+            if (name.equals("toString") && paramCount == 0) {
+                return "Lease of shared management client for " + shared.key;
+            }
+            synchronized (this) {
+                if (released) {
+                    throw new IllegalStateException("Management client lease for " + shared.key
+                            + " has already been closed");
+                }
+            }
+            try {
+                return method.invoke(shared.delegate, args);
+            } catch (InvocationTargetException e) {
+                if (!(e.getCause() instanceof IOException) || name.equals("reconnect")) {
+                    throw e.getCause();
+                }
+                if (!isRetryable(method, args)) {
+                    log.info("Operation on shared management client for {} failed ({}), reconnecting",
+                            shared.key, e.getCause().getMessage());
+                    try {
+                        shared.delegate.reconnect(RECONNECT_TIMEOUT_SECONDS);
+                    } catch (Exception reconnectException) {
+                        e.getCause().addSuppressed(reconnectException);
+                    }
+                    throw e.getCause();
+                }
+                log.info("Operation on shared management client for {} failed ({}), reconnecting and retrying",
+                        shared.key, e.getCause().getMessage());
+                shared.delegate.reconnect(RECONNECT_TIMEOUT_SECONDS);
+                try {
+                    return method.invoke(shared.delegate, args);
+                } catch (InvocationTargetException retryException) {
+                    throw retryException.getCause();
+                }
+            }
+        }
+
+        /**
+         * Only read-only operations are safe to be repeated, others (add, write-attribute, reload via
+         * {@link org.wildfly.extras.creaper.core.online.operations.admin.Administration}, commands) might have been
+         * applied before the connection was lost.
+         */
+        private static boolean isRetryable(Method method, Object[] args) {
+            return ManagementOperations.isExecute(method, args) && ManagementOperations.isReadOnly(args[0]);
+        }
+
+        private void release() {
+            synchronized (this) {
+                if (released) {
+                    return;
+                }
+                released = true;
+            }
+            synchronized (INSTANCE.clients) {
+                shared.leases--;
+            }
+        }
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+
+package org.jboss.hal.testsuite.creaper;
+
+import org.jboss.as.controller.client.Operation;
+import org.jboss.dmr.ModelNode;
+import org.jboss.hal.testsuite.util.ResourceLockRegistry;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Parses operations passed to <code>execute</code> and <code>executeCli</code> of
+ * {@link org.wildfly.extras.creaper.core.online.OnlineManagementClient} for the client wrappers of this package.
+ * {@link Operation}s, {@link ModelNode}s and CLI strings are all broken to {@link Step}s, composite operations to
+ * their steps.
+ */
+final class ManagementOperations {
+
+    private static final Set<String> READ_ONLY_OPERATIONS = new HashSet<>(Arrays.asList("whoami", "query",
+            "resolve-expression", "resolve-internet-address", "validate-address", "validate-operation",
+            "product-info"));
+    private static final Set<String> RELOADING_OPERATIONS = new HashSet<>(Arrays.asList("reload", "shutdown",
+            "restart", "reload-servers", "restart-servers"));
+    private static final Pattern CLI_OPERATION = Pattern.compile("^\\s*(/[^:]*)?:([\\w\\-]+).*", Pattern.DOTALL);
+    private static final Pattern CLI_COMMAND = Pattern.compile("^\\s*(reload|shutdown)(\\s.*)?", Pattern.DOTALL);
+
+    private ManagementOperations() {
+    }
+
+    /**
+     * @return true if the method executes a single operation, i.e. it is <code>execute</code> or
+     * <code>executeCli</code>
+     */
+    static boolean isExecute(Method method, Object[] args) {
+        String name = method.getName();
+        return (name.equals("execute") || name.equals("executeCli")) && args != null && args.length == 1;
+    }
+
+    /**
+     * @param operation argument of <code>execute</code> or <code>executeCli</code>
+     * @return steps of the operation, empty if the operation is not understood
+     */
+    static List<Step> getSteps(Object operation) {
+        List<Step> steps = new ArrayList<>();
+        addSteps(operation, steps);
+        return steps;
+    }
+
+    /**
+     * @param operation argument of <code>execute</code> or <code>executeCli</code>
+     * @return true if the operation (every step of a composite operation) can't change anything
+     */
+    static boolean isReadOnly(Object operation) {
+        List<Step> steps = getSteps(operation);
+        return !steps.isEmpty() && steps.stream().allMatch(Step::isReadOnly);
+    }
+
+    /**
+     * @param operation argument of <code>execute</code> or <code>executeCli</code>
+     * @return true if the operation (any step of a composite operation) reloads, restarts or shuts down a server
+     */
+    static boolean isReloading(Object operation) {
+        return getSteps(operation).stream().anyMatch(Step::isReloading);
+    }
+
+    private static void addSteps(Object operation, List<Step> steps) {
+        if (operation instanceof Operation) {
+            addSteps(((Operation) operation).getOperation(), steps);
+        } else if (operation instanceof ModelNode) {
+            ModelNode node = (ModelNode) operation;
+            String name = node.get("operation").asString();
+            if (name.equals("composite")) {
+                node.get("steps").asList().forEach(step -> addSteps(step, steps));
+            } else {
+                steps.add(new Step(name, ResourceLockRegistry.toResource(node.get("address"))));
+            }
+        } else if (operation instanceof String) {
+            String cli = (String) operation;
+            Matcher command = CLI_COMMAND.matcher(cli);
+            Matcher matcher = CLI_OPERATION.matcher(cli);
+            if (command.matches()) {
+                steps.add(new Step(command.group(1), ""));
+            } else if (matcher.matches()) {
+                String address = matcher.group(1) == null ? "" : matcher.group(1).trim();
+                steps.add(new Step(matcher.group(2), address.replaceAll("^/+|/+$", "")));
+            }
+        }
+    }
+
+    /**
+     * Single, non-composite operation.
+     */
+    static final class Step {
+
+        private final String name;
+        private final String resource;
+
+        private Step(String name, String resource) {
+            this.name = name;
+            this.resource = resource;
+        }
+
+        String getName() {
+            return name;
+        }
+
+        /**
+         * @return address of the operation in the form of {@link ResourceLockRegistry} resources
+         */
+        String getResource() {
+            return resource;
+        }
+
+        boolean isReadOnly() {
+            return name.startsWith("read-") || READ_ONLY_OPERATIONS.contains(name);
+        }
+
+        boolean isReloading() {
+            return RELOADING_OPERATIONS.contains(name);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+
+package org.jboss.hal.testsuite.creaper;
+
+import org.jboss.hal.testsuite.cli.CliSessionPool;
+import org.jboss.hal.testsuite.util.Console;
+import org.wildfly.extras.creaper.core.online.OnlineManagementClient;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+/**
+ * Wraps {@link OnlineManagementClient} so that every reload, restart or shutdown executed via it (directly or by
+ * {@link org.wildfly.extras.creaper.core.online.operations.admin.Administration}) marks the console for full reload,
+ * see {@link Console#requireFullReload()}. Otherwise in-app navigation would reuse the console loaded before the server
+ * was reloaded. Idle sessions of {@link CliSessionPool} are dropped as well, since their connections get broken.
+ */
+final class ReloadTrackingClient implements InvocationHandler {
+
+    private final OnlineManagementClient delegate;
+
+    private ReloadTrackingClient(OnlineManagementClient delegate) {
+        this.delegate = delegate;
+    }
+
+    static OnlineManagementClient wrap(OnlineManagementClient client) {
+        return (OnlineManagementClient) Proxy.newProxyInstance(OnlineManagementClient.class.getClassLoader(),
+                new Class<?>[]{OnlineManagementClient.class}, new ReloadTrackingClient(client));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        String name = method.getName();
+        boolean reloading = false;
+        if (ManagementOperations.isExecute(method, args)) {
+            reloading = ManagementOperations.isReloading(args[0]);
+            if (reloading) {
+                Console.requireFullReload();
+            }
+        } else if (name.equals("equals") && method.getParameterCount() == 1) {
+            return proxy == args[0];
+        } else if (name.equals("hashCode") && method.getParameterCount() == 0) {
+            return System.identityHashCode(proxy);
+        }
+        try {
+            return method.invoke(delegate, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        } finally {
+            if (reloading) {
+                CliSessionPool.getInstance().closeAll();
+            }
+        }
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.hal.testsuite.creaper;
+
+import org.jboss.hal.testsuite.util.ResourceLockRegistry;
+import org.wildfly.extras.creaper.core.online.OnlineManagementClient;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+/**
+ * Wraps {@link OnlineManagementClient} so that every operation which may change a resource first acquires the lock
+ * of the resource in {@link ResourceLockRegistry}. This way test classes of parallel forks touching the same resource
+ * are serialized automatically. Read-only operations don't lock anything. Reload, restart and shutdown lock the root
+ * exclusively, whatever their address is, so they wait until no other fork runs a test class.
+ * <p/>
+ * Only operations executed directly on the client are seen, not those executed by {@link
+ * org.wildfly.extras.creaper.core.online.OnlineCommand}s applied to it.
+ */
+final class ResourceLockingClient implements InvocationHandler {
+
+    private final OnlineManagementClient delegate;
+
+    private ResourceLockingClient(OnlineManagementClient delegate) {
+        this.delegate = delegate;
+    }
+
+    static OnlineManagementClient wrap(OnlineManagementClient client) {
+        return (OnlineManagementClient) Proxy.newProxyInstance(OnlineManagementClient.class.getClassLoader(),
+                new Class<?>[]{OnlineManagementClient.class}, new ResourceLockingClient(client));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        String name = method.getName();
+        if (ManagementOperations.isExecute(method, args)) {
+            lockTarget(args[0]);
+        } else if (name.equals("equals") && method.getParameterCount() == 1) {
+            return proxy == args[0];
+        } else if (name.equals("hashCode") && method.getParameterCount() == 0) {
+            return System.identityHashCode(proxy);
+        }
+        try {
+            return method.invoke(delegate, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static void lockTarget(Object operation) {
+        ResourceLockRegistry registry = ResourceLockRegistry.getInstance();
+        for (ManagementOperations.Step step : ManagementOperations.getSteps(operation)) {
+            if (step.isReloading()) {
+                registry.acquire("");
+            } else if (!step.isReadOnly()) {
+                registry.acquire(step.getResource());
+            }
+        }
+    }
+}
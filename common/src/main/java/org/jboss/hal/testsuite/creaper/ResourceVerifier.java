@@ -23,9 +23,9 @@
 package org.jboss.hal.testsuite.creaper;
 
 import org.jboss.dmr.ModelNode;
-import org.jboss.hal.testsuite.cli.Library;
 import org.jboss.hal.testsuite.dmr.ModelNodeGenerator;
 import org.jboss.hal.testsuite.util.ConfigUtils;
+import org.jboss.hal.testsuite.util.ModelPoller;
 import org.junit.Assert;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -37,6 +37,7 @@ import org.wildfly.extras.creaper.core.online.operations.OperationException;
 import org.wildfly.extras.creaper.core.online.operations.Operations;
 
 import java.io.IOException;
+import java.util.Map;
 
 /**
  * Helper class to verify resource existence and attribute values in model.
@@ -45,10 +46,11 @@ import java.io.IOException;
 public class ResourceVerifier {
 
     private static final Logger log = LoggerFactory.getLogger(ResourceVerifier.class);
-    private static final int DEFAULT_TIMEOUT = Integer.parseInt(ConfigUtils.get("propagate.to.model.timeout", "500"));
+    static final int DEFAULT_TIMEOUT = Integer.parseInt(ConfigUtils.get("propagate.to.model.timeout", "500"));
     public static final int LONG_TIMEOUT = Integer.parseInt(ConfigUtils.get("propagate.to.model.timeout.long", "6000"));
 
     private Address resourceAddress;
+    private OnlineManagementClient client;
     private Operations ops;
     private int timeout;
 
@@ -61,6 +63,7 @@ public class ResourceVerifier {
      */
     public ResourceVerifier(Address resourceAddress, OnlineManagementClient client, int timeout) {
         this.resourceAddress = resourceAddress;
+        this.client = client;
         this.ops = new Operations(client);
         this.timeout = timeout;
     }
@@ -196,6 +199,27 @@ public class ResourceVerifier {
         return verifyAttribute(attributeName, new ModelNode(expectedValue));
     }
 
+    /**
+     * Verifies the values of several attributes in model. All attributes are read by one operation per poll and all
+     * mismatches are reported at once.
+     * @param expectedValues - attribute names mapped to expected values, undefined node means undefined attribute
+     * @param errorMessageSuffix is intended to be used for e.g. passing related tracked issue.
+     * @see AttributesVerifier
+     */
+    public ResourceVerifier verifyAttributes(Map<String, ModelNode> expectedValues, String errorMessageSuffix)
+            throws Exception {
+        new AttributesVerifier(client, timeout).expect(resourceAddress, expectedValues).verify(errorMessageSuffix);
+        return this;
+    }
+
+    /**
+     * Verifies the values of several attributes in model.
+     * @see #verifyAttributes(Map, String)
+     */
+    public ResourceVerifier verifyAttributes(Map<String, ModelNode> expectedValues) throws Exception {
+        return verifyAttributes(expectedValues, "");
+    }
+
     /**
      * @throws Exception
      * @throws AssertionError if resource exists and has attribute with attributeName
@@ -237,10 +261,9 @@ public class ResourceVerifier {
     }
 
     private void waitFor(PropagationChecker checker) throws Exception {
-        long start = System.currentTimeMillis();
-        while (! checker.finallyPropagated() && System.currentTimeMillis() <= start + timeout) {
-            log.debug("Not yet propagated therefore waiting.");
-            Library.letsSleep(100);
+        if (!ModelPoller.pollUntil(ModelPoller.resourceType(resourceAddress.toString()), timeout,
+                checker::finallyPropagated)) {
+            log.debug("Not propagated within {} ms.", timeout);
         }
     }
 
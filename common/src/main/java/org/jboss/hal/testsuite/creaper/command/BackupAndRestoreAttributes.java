@@ -2,6 +2,7 @@ package org.jboss.hal.testsuite.creaper.command;
 
 import org.jboss.dmr.ModelNode;
 import org.jboss.dmr.Property;
+import org.jboss.hal.testsuite.util.ResourceLockRegistry;
 import org.jgrapht.experimental.dag.DirectedAcyclicGraph;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -23,6 +24,8 @@ import java.util.Set;
 /**
  * <p>A command for making backups and restores of attributes at given address.</p>
  * <p>Backup does not descend to children, it backups attributes only at given address!</p>
+ * <p>In parallel execution the backup locks the address (see {@link ResourceLockRegistry}) until the test class
+ * finishes, so no other fork changes the attributes in the meantime.</p>
  */
 public final class BackupAndRestoreAttributes {
 
@@ -47,6 +50,7 @@ public final class BackupAndRestoreAttributes {
             if (BackupAndRestoreAttributes.this.backup != null) {
                 throw new CommandFailedException("Backup has been already made!");
             }
+            ResourceLockRegistry.getInstance().acquire(address);
             Operations ops = new Operations(ctx.client);
 
             BackupAndRestoreAttributes.this.backup = ops.readResource(address, ReadResourceOption.INCLUDE_DEFAULTS, ReadResourceOption.ATTRIBUTES_ONLY).value();
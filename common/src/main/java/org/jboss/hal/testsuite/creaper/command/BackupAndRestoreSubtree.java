@@ -0,0 +1,386 @@
+package org.jboss.hal.testsuite.creaper.command;
+
+import org.jboss.dmr.ModelNode;
+import org.jboss.dmr.Property;
+import org.jboss.hal.testsuite.util.ResourceLockRegistry;
+import org.jgrapht.experimental.dag.DirectedAcyclicGraph;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wildfly.extras.creaper.core.CommandFailedException;
+import org.wildfly.extras.creaper.core.online.ModelNodeResult;
+import org.wildfly.extras.creaper.core.online.OnlineCommand;
+import org.wildfly.extras.creaper.core.online.OnlineCommandContext;
+import org.wildfly.extras.creaper.core.online.operations.Address;
+import org.wildfly.extras.creaper.core.online.operations.Batch;
+import org.wildfly.extras.creaper.core.online.operations.Operations;
+import org.wildfly.extras.creaper.core.online.operations.Values;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.ACCESS_TYPE;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.ADD;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.ATTRIBUTES;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.CHILDREN;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.CONFIGURATION;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.INCLUDE_DEFAULTS;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.INHERITED;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.MODEL_DESCRIPTION;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.NAME;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OPERATIONS;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.READ_RESOURCE_DESCRIPTION_OPERATION;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.READ_RESOURCE_OPERATION;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.READ_WRITE;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.RECURSIVE;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.REQUEST_PROPERTIES;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.STORAGE;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.UNDEFINE_ATTRIBUTE_OPERATION;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.WILDCARD;
+
+/**
+ * <p>A command for making backups and restores of the whole subtree at given address, i.e. attributes of the resource
+ * and all its children recursively.</p>
+ * <p>Restore compares the current subtree with the backup and applies only the difference in one composite
+ * operation: removes resources added since the backup, adds back removed resources (parents before children) and
+ * writes (or undefines) only attributes whose value has changed. If nothing has changed, no operation is executed.
+ * Use it instead of removing child resources created by the test one by one in <code>finally</code> blocks.</p>
+ * <p>Only configuration is restored, runtime attributes and metrics are ignored. In parallel execution the backup locks
+ * the address (see {@link ResourceLockRegistry}) until the test class finishes.</p>
+ * <p>Usage:</p>
+ * <pre>
+ * BackupAndRestoreSubtree backup = new BackupAndRestoreSubtree.Builder(Address.subsystem("undertow")).build();
+ * client.apply(backup.backup());
+ * ...
+ * client.apply(backup.restore());
+ * </pre>
+ *
+ * @see BackupAndRestoreAttributes
+ */
+public final class BackupAndRestoreSubtree {
+
+    private final Address address;
+    private final DirectedAcyclicGraph<String, String> dependencies;
+    private final Set<String> excluded;
+    private final Set<String> excludedChildTypes;
+
+    private final Logger logger = LoggerFactory.getLogger(BackupAndRestoreSubtree.class);
+
+    private ModelNode backup;
+    private ModelNode description;
+
+    private BackupAndRestoreSubtree(Builder builder) {
+        this.address = builder.address;
+        this.dependencies = builder.dependencies;
+        this.excluded = builder.excluded;
+        this.excludedChildTypes = builder.excludedChildTypes;
+    }
+
+    private final OnlineCommand backupPart = new OnlineCommand() {
+
+        @Override
+        public void apply(OnlineCommandContext ctx) throws Exception {
+            if (BackupAndRestoreSubtree.this.backup != null) {
+                throw new CommandFailedException("Backup has been already made!");
+            }
+            ResourceLockRegistry.getInstance().acquire(address);
+            Operations ops = new Operations(ctx.client);
+
+            ModelNodeResult descriptionResult = ops.invoke(READ_RESOURCE_DESCRIPTION_OPERATION, address,
+                    Values.of(RECURSIVE, true).and(OPERATIONS, true).and(INHERITED, false));
+            descriptionResult.assertSuccess("Unable to read description of " + address);
+            ModelNodeResult resourceResult = ops.invoke(READ_RESOURCE_OPERATION, address,
+                    Values.of(RECURSIVE, true).and(INCLUDE_DEFAULTS, false));
+            resourceResult.assertSuccess("Unable to read " + address);
+
+            BackupAndRestoreSubtree.this.description = descriptionResult.value();
+            BackupAndRestoreSubtree.this.backup = resourceResult.value();
+        }
+    };
+
+    private final OnlineCommand restorePart = new OnlineCommand() {
+
+        @Override
+        public void apply(OnlineCommandContext ctx) throws Exception {
+            if (BackupAndRestoreSubtree.this.backup == null) {
+                throw new CommandFailedException("There is no backup to be restored!");
+            }
+            Operations ops = new Operations(ctx.client);
+            ModelNodeResult current = ops.invoke(READ_RESOURCE_OPERATION, address,
+                    Values.of(RECURSIVE, true).and(INCLUDE_DEFAULTS, false));
+
+            Diff diff = new Diff();
+            if (current.isSuccess()) {
+                diff.compare(address, backup, current.value(), description);
+            } else { // whole subtree has been removed
+                diff.add(address, backup, description);
+            }
+
+            if (diff.isEmpty()) {
+                logger.info("Subtree '" + address + "' has not changed, nothing to restore.");
+            } else {
+                logger.info("Restoring subtree '" + address + "': " + diff.removes.size() + " remove(s), "
+                        + diff.adds.size() + " add(s), " + diff.writes.size() + " attribute write(s).");
+                Batch batch = new Batch();
+                diff.removes.forEach(batch::remove);
+                for (Addition addition : diff.adds) {
+                    batch.add(addition.address, addition.values);
+                }
+                for (AttributeWrite write : diff.writes) {
+                    if (write.value.isDefined()) {
+                        batch.writeAttribute(write.address, write.name, write.value);
+                    } else {
+                        batch.invoke(UNDEFINE_ATTRIBUTE_OPERATION, write.address, Values.of(NAME, write.name));
+                    }
+                }
+                ops.batch(batch).assertSuccess("Unable to restore subtree " + address);
+            }
+
+            BackupAndRestoreSubtree.this.backup = null; //can be reused after restoring subtree
+            BackupAndRestoreSubtree.this.description = null;
+        }
+    };
+
+    /**
+     * Difference between the backup and current subtree, collected in the order it has to be applied.
+     */
+    private final class Diff {
+
+        private final List<Address> removes = new ArrayList<>();
+        private final List<Addition> adds = new ArrayList<>();
+        private final List<AttributeWrite> writes = new ArrayList<>();
+
+        private boolean isEmpty() {
+            return removes.isEmpty() && adds.isEmpty() && writes.isEmpty();
+        }
+
+        private void compare(Address resource, ModelNode expected, ModelNode actual, ModelNode resourceDescription) {
+            List<String> changed = new ArrayList<>();
+            for (String attribute : writableAttributes(resourceDescription)) {
+                if (!expected.get(attribute).equals(actual.get(attribute))) {
+                    changed.add(attribute);
+                }
+            }
+            for (String attribute : ordered(changed)) {
+                writes.add(new AttributeWrite(resource, attribute, expected.get(attribute)));
+            }
+
+            for (String childType : childTypes(resourceDescription)) {
+                Set<String> expectedChildren = childNames(expected, childType);
+                Set<String> actualChildren = childNames(actual, childType);
+                for (String child : actualChildren) {
+                    if (!expectedChildren.contains(child)) {
+                        removes.add(resource.and(childType, child));
+                    }
+                }
+                for (String child : expectedChildren) {
+                    ModelNode childDescription = childDescription(resourceDescription, childType, child);
+                    if (childDescription == null) {
+                        continue;
+                    }
+                    Address childAddress = resource.and(childType, child);
+                    ModelNode expectedChild = expected.get(childType, child);
+                    if (actualChildren.contains(child)) {
+                        compare(childAddress, expectedChild, actual.get(childType, child), childDescription);
+                    } else {
+                        add(childAddress, expectedChild, childDescription);
+                    }
+                }
+            }
+        }
+
+        private void add(Address resource, ModelNode expected, ModelNode resourceDescription) {
+            Values values = Values.empty();
+            ModelNode addDescription = resourceDescription.get(OPERATIONS, ADD, REQUEST_PROPERTIES);
+            if (addDescription.isDefined()) {
+                for (String parameter : addDescription.keys()) {
+                    if (expected.hasDefined(parameter)) {
+                        values = values.and(parameter, expected.get(parameter));
+                    }
+                }
+            }
+            adds.add(new Addition(resource, values));
+
+            for (String childType : childTypes(resourceDescription)) {
+                for (String child : childNames(expected, childType)) {
+                    ModelNode childDescription = childDescription(resourceDescription, childType, child);
+                    if (childDescription != null) {
+                        add(resource.and(childType, child), expected.get(childType, child), childDescription);
+                    }
+                }
+            }
+        }
+    }
+
+    private List<String> writableAttributes(ModelNode resourceDescription) {
+        List<String> attributes = new ArrayList<>();
+        if (!resourceDescription.hasDefined(ATTRIBUTES)) {
+            return attributes;
+        }
+        for (Property attribute : resourceDescription.get(ATTRIBUTES).asPropertyList()) {
+            ModelNode attributeDescription = attribute.getValue();
+            if (READ_WRITE.equals(attributeDescription.get(ACCESS_TYPE).asString())
+                    && CONFIGURATION.equals(attributeDescription.get(STORAGE).asString())
+                    && (excluded == null || !excluded.contains(attribute.getName())
+                            || isDependency(attribute.getName()))) {
+                attributes.add(attribute.getName());
+            }
+        }
+        return attributes;
+    }
+
+    private boolean isDependency(String attribute) {
+        return dependencies != null && dependencies.containsVertex(attribute);
+    }
+
+    /**
+     * Orders changed attributes so that each one is written after attributes it depends on.
+     */
+    private List<String> ordered(List<String> changed) {
+        if (dependencies == null) {
+            return changed;
+        }
+        List<String> ordered = new ArrayList<>();
+        Iterator<String> dependencyIterator = dependencies.iterator();
+        while (dependencyIterator.hasNext()) {
+            String attribute = dependencyIterator.next();
+            if (changed.contains(attribute)) {
+                ordered.add(attribute);
+            }
+        }
+        for (String attribute : changed) {
+            if (!ordered.contains(attribute)) {
+                ordered.add(attribute);
+            }
+        }
+        return ordered;
+    }
+
+    private Set<String> childTypes(ModelNode resourceDescription) {
+        Set<String> childTypes = new LinkedHashSet<>();
+        if (resourceDescription.hasDefined(CHILDREN)) {
+            childTypes.addAll(resourceDescription.get(CHILDREN).keys());
+        }
+        if (excludedChildTypes != null) {
+            childTypes.removeAll(excludedChildTypes);
+        }
+        return childTypes;
+    }
+
+    private static Set<String> childNames(ModelNode resource, String childType) {
+        Set<String> names = new LinkedHashSet<>();
+        if (resource.hasDefined(childType)) {
+            names.addAll(resource.get(childType).keys());
+        }
+        return names;
+    }
+
+    /**
+     * @return description of given child, either the specific one or the wildcard one, null if not described
+     */
+    private static ModelNode childDescription(ModelNode resourceDescription, String childType, String child) {
+        ModelNode models = resourceDescription.get(CHILDREN, childType, MODEL_DESCRIPTION);
+        if (models.hasDefined(child)) {
+            return models.get(child);
+        }
+        if (models.hasDefined(WILDCARD)) {
+            return models.get(WILDCARD);
+        }
+        return null;
+    }
+
+    private static final class Addition {
+
+        private final Address address;
+        private final Values values;
+
+        private Addition(Address address, Values values) {
+            this.address = address;
+            this.values = values;
+        }
+    }
+
+    private static final class AttributeWrite {
+
+        private final Address address;
+        private final String name;
+        private final ModelNode value;
+
+        private AttributeWrite(Address address, String name, ModelNode value) {
+            this.address = address;
+            this.name = name;
+            this.value = value;
+        }
+    }
+
+    public static final class Builder {
+
+        private Address address;
+        private DirectedAcyclicGraph<String, String> dependencies;
+        private Set<String> excluded;
+        private Set<String> excludedChildTypes;
+
+        public Builder(Address address) {
+            this.address = address;
+        }
+
+        /**
+         * Add dependency. Dependent attribute will be written after the one it depends on, both of them will be
+         * restored even if present in excluded list.
+         */
+        public Builder dependency(String attribute, String dependsOn) {
+            if (dependencies == null && dependsOn != null) {
+                dependencies = new DirectedAcyclicGraph<>(String.class);
+            }
+            if (dependencies != null) {
+                dependencies.addVertex(attribute);
+                dependencies.addVertex(dependsOn);
+                dependencies.addEdge(dependsOn, attribute); //throws an unchecked exception if graph becomes cyclic after adding
+            }
+            return this;
+        }
+
+        /**
+         * Add attribute which will be excluded from restoring (at any level of the subtree)
+         */
+        public Builder excluded(String attribute) {
+            if (excluded == null && attribute != null) {
+                excluded = new HashSet<>();
+            }
+            if (attribute != null) {
+                excluded.add(attribute);
+            }
+            return this;
+        }
+
+        /**
+         * Add child type whose resources will be neither removed nor added back (at any level of the subtree)
+         */
+        public Builder excludedChildType(String childType) {
+            if (excludedChildTypes == null && childType != null) {
+                excludedChildTypes = new HashSet<>();
+            }
+            if (childType != null) {
+                excludedChildTypes.add(childType);
+            }
+            return this;
+        }
+
+        public BackupAndRestoreSubtree build() {
+            return new BackupAndRestoreSubtree(this);
+        }
+
+    }
+
+    public OnlineCommand backup() {
+        return backupPart;
+    }
+
+    public OnlineCommand restore() {
+        return restorePart;
+    }
+
+}
@@ -0,0 +1,345 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+
+package org.jboss.hal.testsuite.daemon;
+
+import org.apache.commons.io.FileUtils;
+import org.jboss.hal.testsuite.impact.ImpactIndex;
+import org.jboss.hal.testsuite.util.ConfigUtils;
+import org.junit.runner.Description;
+import org.junit.runner.Request;
+import org.junit.runner.Runner;
+import org.junit.runner.notification.Failure;
+import org.junit.runner.notification.RunListener;
+import org.junit.runner.notification.RunNotifier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Runner which doesn't finish, but keeps the JVM, Arquillian context (attached container, extensions) and shared
+ * management clients warm and runs test classes or methods on request. Requests are accepted on
+ * <code>localhost:suite.daemon.port</code> (default 7690), one per connection, as a line of comma separated
+ * <code>class</code> or <code>class#method</code> names, <code>quit</code> stops the daemon. Results are written back
+ * to the connection. With <code>suite.daemon.watch=true</code> the daemon also watches the test classes directory and
+ * runs test classes affected by recompiled classes (see {@link ImpactIndex}).
+ * <p/>
+ * Test classes are loaded by a new isolated class loader for every request, so recompiled test classes are picked up
+ * without restart. Classes from other modules (page objects, fragments from <code>common</code>) are loaded once, the
+ * daemon has to be restarted when they change.
+ * <p/>
+ * Usage:
+ * <pre>
+ * &#64;RunWith(SuiteDaemon.class)
+ * public class SuiteDaemonEntry {
+ * }
+ * </pre>
+ * <pre>
+ * echo "org.jboss.hal.testsuite.test.configuration.undertow.HTTPListenerTestCase" | nc localhost 7690
+ * </pre>
+ */
+public class SuiteDaemon extends Runner {
+
+    private static final Logger log = LoggerFactory.getLogger(SuiteDaemon.class);
+
+    private static final int PORT = Integer.parseInt(ConfigUtils.get("suite.daemon.port", "7690"));
+    private static final boolean WATCH = Boolean.parseBoolean(ConfigUtils.get("suite.daemon.watch", "false"));
+    private static final long WATCH_INTERVAL = Long.parseLong(ConfigUtils.get("suite.daemon.watch.interval", "1000"));
+    private static final String QUIT = "quit";
+    private static final String PREFIX = "org.jboss.hal.testsuite.";
+
+    private final Description description;
+    private final List<File> classDirectories;
+
+    public SuiteDaemon(Class<?> klass) throws URISyntaxException {
+        this.description = Description.createSuiteDescription(klass);
+        String directories = ConfigUtils.get("suite.daemon.classes", null);
+        if (directories != null) {
+            this.classDirectories = new ArrayList<>();
+            for (String directory : directories.split(",")) {
+                classDirectories.add(new File(directory.trim()));
+            }
+        } else {
+            this.classDirectories = Collections.singletonList(
+                    new File(klass.getProtectionDomain().getCodeSource().getLocation().toURI()));
+        }
+    }
+
+    @Override
+    public Description getDescription() {
+        return description;
+    }
+
+    @Override
+    public void run(RunNotifier notifier) {
+        BlockingQueue<Execution> queue = new LinkedBlockingQueue<>();
+        try (ServerSocket server = new ServerSocket(PORT, 50, InetAddress.getLoopbackAddress())) {
+            startThread("suite-daemon-acceptor", () -> accept(server, queue));
+            if (WATCH) {
+                startThread("suite-daemon-watcher", () -> watch(queue));
+            }
+            log.info("Suite daemon listening on port {}{}", PORT, WATCH ? ", watching " + classDirectories : "");
+            while (true) {
+                Execution execution = queue.take();
+                if (execution.targets.equals(Collections.singletonList(QUIT))) {
+                    execution.println("Suite daemon stopped");
+                    execution.done.countDown();
+                    break;
+                }
+                try {
+                    execute(execution);
+                } finally {
+                    execution.done.countDown();
+                }
+            }
+        } catch (IOException e) {
+            notifier.fireTestFailure(new Failure(description, e));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void execute(Execution execution) {
+        long start = System.currentTimeMillis();
+        Reporter reporter = new Reporter(execution);
+        // own notifier for every request, finishing the run would tear down the Arquillian context
+        RunNotifier notifier = new RunNotifier();
+        notifier.addListener(reporter);
+        Thread thread = Thread.currentThread();
+        ClassLoader originalClassLoader = thread.getContextClassLoader();
+        try {
+            ClassLoader classLoader = new ChildFirstClassLoader(classDirectories, getClass().getClassLoader());
+            thread.setContextClassLoader(classLoader);
+            for (String target : execution.targets) {
+                String[] parts = target.split("#", 2);
+                try {
+                    Class<?> testClass = Class.forName(parts[0], true, classLoader);
+                    Request request = parts.length > 1 ? Request.method(testClass, parts[1]) : Request.aClass(testClass);
+                    request.getRunner().run(notifier);
+                } catch (ClassNotFoundException | LinkageError e) {
+                    execution.println("ERROR " + target + ": " + e);
+                    reporter.failures++;
+                }
+            }
+        } catch (IOException e) {
+            execution.println("ERROR " + e);
+        } finally {
+            thread.setContextClassLoader(originalClassLoader);
+        }
+        execution.println(String.format("Tests run: %d, Failures: %d, Skipped: %d, Time: %d ms", reporter.run,
+                reporter.failures, reporter.skipped, System.currentTimeMillis() - start));
+    }
+
+    private void accept(ServerSocket server, BlockingQueue<Execution> queue) {
+        while (!server.isClosed()) {
+            try {
+                Socket socket = server.accept();
+                startThread("suite-daemon-client", () -> serve(socket, queue));
+            } catch (IOException e) {
+                if (!server.isClosed()) {
+                    log.warn("Unable to accept suite daemon request", e);
+                }
+            }
+        }
+    }
+
+    private void serve(Socket socket, BlockingQueue<Execution> queue) {
+        try (Socket s = socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(s.getInputStream(), StandardCharsets.UTF_8));
+             PrintWriter out = new PrintWriter(new OutputStreamWriter(s.getOutputStream(), StandardCharsets.UTF_8),
+                     true)) {
+            String line = in.readLine();
+            List<String> targets = split(line == null ? "" : line);
+            if (targets.isEmpty()) {
+                out.println("Expected comma separated class or class#method names or " + QUIT);
+                return;
+            }
+            Execution execution = new Execution(targets, out);
+            queue.put(execution);
+            execution.done.await();
+        } catch (IOException e) {
+            log.warn("Unable to serve suite daemon request", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void watch(BlockingQueue<Execution> queue) {
+        try {
+            ImpactIndex index = new ImpactIndex();
+            index.update(classDirectories, Collections.emptyList(), PREFIX);
+            Map<String, Long> stamps = scan();
+            while (true) {
+                Thread.sleep(WATCH_INTERVAL);
+                Map<String, Long> current = scan();
+                if (current.equals(stamps)) {
+                    continue;
+                }
+                // let the compilation finish
+                Map<String, Long> settled = waitAndScan();
+                while (!settled.equals(current)) {
+                    current = settled;
+                    settled = waitAndScan();
+                }
+                Set<String> changed = new HashSet<>();
+                for (Map.Entry<String, Long> entry : current.entrySet()) {
+                    if (!entry.getValue().equals(stamps.get(entry.getKey()))) {
+                        changed.add(entry.getKey());
+                    }
+                }
+                stamps = current;
+                index.update(classDirectories, Collections.emptyList(), PREFIX);
+                Set<String> affected = index.selectAffected(changed);
+                log.info("Classes {} changed, running {}", changed, affected);
+                if (!affected.isEmpty()) {
+                    queue.put(new Execution(new ArrayList<>(affected), null));
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Watching of " + classDirectories + " failed", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Map<String, Long> waitAndScan() throws InterruptedException {
+        Thread.sleep(WATCH_INTERVAL);
+        return scan();
+    }
+
+    /**
+     * @return last modification of every top level class, nested classes included
+     */
+    private Map<String, Long> scan() {
+        Map<String, Long> stamps = new HashMap<>();
+        for (File directory : classDirectories) {
+            if (!directory.isDirectory()) {
+                continue;
+            }
+            for (File file : FileUtils.listFiles(directory, new String[]{"class"}, true)) {
+                String relative = directory.toURI().relativize(file.toURI()).getPath();
+                String name = relative.substring(0, relative.length() - ".class".length()).replace('/', '.');
+                int dollar = name.indexOf('$');
+                stamps.merge(dollar < 0 ? name : name.substring(0, dollar), file.lastModified(), Math::max);
+            }
+        }
+        return stamps;
+    }
+
+    private static void startThread(String name, Runnable runnable) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private static List<String> split(String value) {
+        List<String> values = new ArrayList<>();
+        Arrays.stream(value.split(",")).map(String::trim).filter(s -> !s.isEmpty()).forEach(values::add);
+        return values;
+    }
+
+    /**
+     * Request to run given classes or methods, results are written to the output if there is one.
+     */
+    private static final class Execution {
+
+        private final List<String> targets;
+        private final PrintWriter out;
+        private final CountDownLatch done = new CountDownLatch(1);
+
+        private Execution(List<String> targets, PrintWriter out) {
+            this.targets = targets;
+            this.out = out;
+        }
+
+        private void println(String line) {
+            log.info(line);
+            if (out != null) {
+                out.println(line);
+            }
+        }
+    }
+
+    private static final class Reporter extends RunListener {
+
+        private final Execution execution;
+        private final Set<Description> failed = new HashSet<>();
+        private int run;
+        private int failures;
+        private int skipped;
+
+        private Reporter(Execution execution) {
+            this.execution = execution;
+        }
+
+        @Override
+        public void testFailure(Failure failure) {
+            failed.add(failure.getDescription());
+            failures++;
+            execution.println("FAILED " + failure.getDescription().getDisplayName() + ": " + failure.getMessage());
+        }
+
+        @Override
+        public void testAssumptionFailure(Failure failure) {
+            failed.add(failure.getDescription());
+            skipped++;
+            execution.println("SKIPPED " + failure.getDescription().getDisplayName());
+        }
+
+        @Override
+        public void testIgnored(Description description) {
+            skipped++;
+            execution.println("IGNORED " + description.getDisplayName());
+        }
+
+        @Override
+        public void testFinished(Description description) {
+            run++;
+            if (!failed.contains(description)) {
+                execution.println("PASSED " + description.getDisplayName());
+            }
+        }
+    }
+}
@@ -23,9 +23,9 @@ package org.jboss.hal.testsuite.dmr;
 
 import org.jboss.as.controller.client.ModelControllerClient;
 import org.jboss.dmr.ModelNode;
-import org.jboss.hal.testsuite.cli.Library;
 import org.jboss.hal.testsuite.cli.TimeoutException;
 import org.jboss.hal.testsuite.util.ConfigUtils;
+import org.jboss.hal.testsuite.util.ModelPoller;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -38,6 +38,8 @@ import javax.security.auth.callback.PasswordCallback;
 import javax.security.auth.callback.UnsupportedCallbackException;
 import javax.security.sasl.RealmCallback;
 
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.ADDRESS;
+
 /**
  * Central class to execute {@link Operation}s.
  *
@@ -79,7 +81,6 @@ public class Dispatcher {
     private static final int MANAGEMENT_PORT = Integer.parseInt(ConfigUtils.get("as.managementPort"));
     private static final String USERNAME = "authentication";
     private static final String PASSWORD = "must be disabled";
-    private static final int WAIT = 200;
 
     private ModelControllerClient client;
 
@@ -108,16 +109,10 @@ public class Dispatcher {
         log.debug("Executing operation {}", operation);
 
         try {
-            long start = System.currentTimeMillis();
-            DmrResponse response = executeSingle(operation);
-            if (operation.getTimeout() > 0) {
-                while (!response.isSuccessful()) {
-                    if (System.currentTimeMillis() >= start + operation.getTimeout()) {
-                        throw new TimeoutException(operation.toString(), operation.getTimeout());
-                    }
-                    Library.letsSleep(WAIT);
-                    response = executeSingle(operation);
-                }
+            DmrResponse response = ModelPoller.poll(ModelPoller.resourceType(operation.get(ADDRESS)),
+                    operation.getTimeout(), () -> executeSingle(operation), DmrResponse::isSuccessful);
+            if (operation.getTimeout() > 0 && !response.isSuccessful()) {
+                throw new TimeoutException(operation.toString(), operation.getTimeout());
             }
             log.info("Operation {} finished with {}", operation, response.isSuccessful() ? "success" : "failure");
             if (!response.isSuccessful())
@@ -23,9 +23,10 @@ package org.jboss.hal.testsuite.dmr;
 
 import org.jboss.as.controller.descriptions.ModelDescriptionConstants;
 import org.jboss.dmr.ModelNode;
-import org.jboss.hal.testsuite.cli.Library;
+import org.jboss.hal.testsuite.util.ModelPoller;
 
 import java.util.Arrays;
+import java.util.function.Predicate;
 
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.READ_ATTRIBUTE_OPERATION;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.READ_RESOURCE_OPERATION;
@@ -94,12 +95,8 @@ public class ResourceVerifier {
      * RECOMMENDATION : It is not good to set timeout bigger than 5000 miliseconds
      */
     public void verifyAttribute(ResourceAddress address, String attribute, boolean expected, int timeout) {
-        DmrResponse response = dispatcher.execute(readAttributeOperation(address, attribute));
-        long start = System.currentTimeMillis();
-
-        while (System.currentTimeMillis() <= start + timeout && expected != response.payload().asBoolean()) {
-            response = getResponseAndWait(address, attribute);
-        }
+        DmrResponse response = readAttributeUntil(address, attribute, timeout,
+                r -> expected == r.payload().asBoolean());
 
         assertTrue(response.isSuccessful());
         assertEquals(expected, response.payload().asBoolean());
@@ -118,14 +115,9 @@ public class ResourceVerifier {
      * RECOMMENDATION : It is not good to set timeout bigger than 5000 miliseconds
      */
     public void verifyAttribute(ResourceAddress address, String attribute, String[] expected, int timeout) {
-        DmrResponse response = dispatcher.execute(readAttributeOperation(address, attribute));
-        long start = System.currentTimeMillis();
-        String[] values = response.payload().asList().stream().map(ModelNode::asString).toArray(String[]::new);
-
-        while (System.currentTimeMillis() <= start + timeout && !Arrays.equals(expected, values)) {
-            response = getResponseAndWait(address, attribute);
-            values = response.payload().asList().stream().map(ModelNode::asString).toArray(String[]::new);
-        }
+        DmrResponse response = readAttributeUntil(address, attribute, timeout,
+                r -> Arrays.equals(expected, asStringArray(r)));
+        String[] values = asStringArray(response);
 
         assertTrue(response.isSuccessful());
         assertArrayEquals(expected, values);
@@ -144,12 +136,8 @@ public class ResourceVerifier {
      * RECOMMENDATION : It is not good to set timeout bigger than 5000 miliseconds
      */
     public void verifyAttribute(ResourceAddress address, String attribute, String expected, int timeout) {
-        DmrResponse response = dispatcher.execute(readAttributeOperation(address, attribute));
-        long start = System.currentTimeMillis();
-
-        while (System.currentTimeMillis() <= start + timeout && !expected.equals(response.payload().asString())) {
-            response = getResponseAndWait(address, attribute);
-        }
+        DmrResponse response = readAttributeUntil(address, attribute, timeout,
+                r -> expected.equals(r.payload().asString()));
 
         assertTrue(response.isSuccessful());
         assertEquals(expected, response.payload().asString());
@@ -160,9 +148,13 @@ public class ResourceVerifier {
                     .param(ModelDescriptionConstants.NAME, attribute).build();
     }
 
-    private DmrResponse getResponseAndWait(ResourceAddress address, String attribute) {
-        Library.letsSleep(50);
-        DmrResponse response = dispatcher.execute(readAttributeOperation(address, attribute));
-        return response;
+    private DmrResponse readAttributeUntil(ResourceAddress address, String attribute, int timeout,
+            Predicate<DmrResponse> done) {
+        return ModelPoller.poll(ModelPoller.resourceType(address), timeout,
+                () -> dispatcher.execute(readAttributeOperation(address, attribute)), done);
+    }
+
+    private static String[] asStringArray(DmrResponse response) {
+        return response.payload().asList().stream().map(ModelNode::asString).toArray(String[]::new);
     }
 }
@@ -0,0 +1,45 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+
+package org.jboss.hal.testsuite.drone;
+
+import org.jboss.arquillian.core.spi.LoadableExtension;
+import org.jboss.arquillian.drone.spi.Destructor;
+import org.jboss.arquillian.drone.spi.Instantiator;
+import org.jboss.hal.testsuite.util.ConfigUtils;
+
+/**
+ * Registers {@link ReusableWebDriverFactory} when <code>suite.browser.reuse=true</code>.
+ */
+public class ReusableBrowserExtension implements LoadableExtension {
+
+    private static final boolean ENABLED = Boolean.parseBoolean(ConfigUtils.get("suite.browser.reuse", "false"));
+
+    @Override
+    public void register(ExtensionBuilder builder) {
+        if (ENABLED) {
+            builder.service(Instantiator.class, ReusableWebDriverFactory.class);
+            builder.service(Destructor.class, ReusableWebDriverFactory.class);
+        }
+    }
+}
@@ -0,0 +1,264 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+
+package org.jboss.hal.testsuite.drone;
+
+import org.jboss.arquillian.core.api.Instance;
+import org.jboss.arquillian.core.api.annotation.Inject;
+import org.jboss.arquillian.core.spi.ServiceLoader;
+import org.jboss.arquillian.drone.spi.Destructor;
+import org.jboss.arquillian.drone.spi.Instantiator;
+import org.jboss.arquillian.drone.webdriver.configuration.WebDriverConfiguration;
+import org.jboss.arquillian.drone.webdriver.factory.WebDriverFactory;
+import org.jboss.hal.testsuite.fragment.MessagesListFragment;
+import org.jboss.hal.testsuite.fragment.NotificationCenterFragment;
+import org.jboss.hal.testsuite.fragment.WindowFragment;
+import org.jboss.hal.testsuite.page.home.HomePage;
+import org.jboss.hal.testsuite.util.ConfigUtils;
+import org.jboss.hal.testsuite.util.Console;
+import org.jboss.hal.testsuite.util.ConsoleIdleDetector;
+import org.jboss.hal.testsuite.util.ConsoleWait;
+import org.jboss.hal.testsuite.util.PropUtils;
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.NoAlertPresentException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WebElement;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Drone factory keeping one browser per JVM (i.e. per surefire fork) across test classes. Instead of closing the
+ * browser after a test class, its state is reset:
+ * <ul>
+ *   <li>other browser windows are closed and alerts dismissed,</li>
+ *   <li>open modal windows ({@link WindowFragment}) are closed,</li>
+ *   <li>messages in {@link NotificationCenterFragment} are cleared,</li>
+ *   <li>console is switched to {@link HomePage} place, or loaded again if it is not reusable (see
+ *   {@link Console#isReusable()}).</li>
+ * </ul>
+ * The browser is handed out again only if it passes a health check, otherwise it is quit and a new one is created by
+ * the default Drone factory. The browser is quit at JVM shutdown.
+ */
+public class ReusableWebDriverFactory implements Instantiator<WebDriver, WebDriverConfiguration>,
+        Destructor<WebDriver> {
+
+    private static final Logger log = LoggerFactory.getLogger(ReusableWebDriverFactory.class);
+
+    private static final int PRECEDENCE = 10;
+    private static final int MAX_CLOSED_WINDOWS = 5;
+    private static final long RESET_BUDGET = 5000;
+    private static final By CLOSE_WINDOW_SELECTOR = By.cssSelector("." + PropUtils.get("modals.window.class") + " ."
+            + PropUtils.get("modals.window.close.class"));
+    private static final By NOTIFICATION_SELECTOR = By.className(NotificationCenterFragment.CLASS_ROOT);
+    private static final By CLEAR_MESSAGES_SELECTOR = By.xpath("//*[contains(concat(' ', @class, ' '), ' inline-link ')]"
+            + "//a[contains(., '" + MessagesListFragment.CLEAR_BUTTON_LABEL + "')]");
+
+    private static WebDriver browser;
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(ReusableWebDriverFactory::quit, "reusable-browser-shutdown"));
+    }
+
+    @Inject
+    private Instance<ServiceLoader> serviceLoader;
+
+    @Override
+    public int getPrecedence() {
+        return PRECEDENCE;
+    }
+
+    @Override
+    public WebDriver createInstance(WebDriverConfiguration configuration) {
+        WebDriverFactory defaultFactory = getDefaultFactory();
+        return obtain(() -> defaultFactory.createInstance(configuration));
+    }
+
+    @Override
+    public void destroyInstance(WebDriver instance) {
+        if (!release(instance)) {
+            getDefaultFactory().destroyInstance(instance);
+        }
+    }
+
+    /**
+     * Hands out the kept browser if it is healthy, otherwise replaces it by a new one. Static, as the browser is kept
+     * per JVM and not per factory instance.
+     *
+     * @param factory creates a new browser
+     */
+    private static synchronized WebDriver obtain(Supplier<WebDriver> factory) {
+        if (browser != null && isHealthy(browser)) {
+            log.debug("Reusing browser");
+            return browser;
+        }
+        if (browser != null) {
+            log.info("Browser failed health check, starting a new one");
+            quit();
+        }
+        browser = factory.get();
+        return browser;
+    }
+
+    /**
+     * Resets state of the kept browser, quits it if the reset fails.
+     *
+     * @return false if given instance is not the kept browser
+     */
+    private static synchronized boolean release(WebDriver instance) {
+        if (instance != browser) {
+            return false;
+        }
+        try {
+            reset(instance);
+        } catch (WebDriverException e) {
+            log.info("Unable to reset browser state, it will be replaced", e);
+            quit();
+        }
+        return true;
+    }
+
+    private static void reset(WebDriver browser) {
+        long start = System.currentTimeMillis();
+        closeOtherWindows(browser);
+        try {
+            browser.switchTo().alert().dismiss();
+        } catch (NoAlertPresentException e) {
+            // nothing to dismiss
+        }
+        if (!browser.getCurrentUrl().startsWith(ConfigUtils.getUrl().toString())) {
+            loadHome(browser, false);
+            return;
+        }
+        for (int i = 0; i < MAX_CLOSED_WINDOWS; i++) {
+            List<WebElement> closeButtons = browser.findElements(CLOSE_WINDOW_SELECTOR);
+            if (closeButtons.isEmpty()) {
+                break;
+            }
+            ConsoleIdleDetector.install(browser);
+            closeButtons.get(closeButtons.size() - 1).click();
+            ConsoleWait.at("ReusableWebDriverFactory.closeWindow", browser, RESET_BUDGET).untilDomQuiet(100).await();
+        }
+        clearMessages(browser);
+        Console console = Console.withBrowser(browser);
+        if (console.isReusable()) {
+            ConsoleIdleDetector.install(browser);
+            ((JavascriptExecutor) browser).executeScript("window.location.hash = arguments[0];",
+                    Console.toPlaceToken(HomePage.class));
+            ConsoleWait.at("ReusableWebDriverFactory.reset", browser, RESET_BUDGET).untilConsoleIdle();
+        } else {
+            loadHome(browser, true);
+        }
+        log.debug("Browser state reset took {} ms", System.currentTimeMillis() - start);
+    }
+
+    private static void clearMessages(WebDriver browser) {
+        List<WebElement> notification = browser.findElements(NOTIFICATION_SELECTOR);
+        if (notification.isEmpty() || getMessagesCount(notification.get(0).getText()) == 0) {
+            return;
+        }
+        ConsoleIdleDetector.install(browser);
+        notification.get(0).click();
+        ConsoleWait.at("ReusableWebDriverFactory.openMessages", browser, RESET_BUDGET).untilDomQuiet(100).await();
+        List<WebElement> clear = browser.findElements(CLEAR_MESSAGES_SELECTOR);
+        if (!clear.isEmpty()) {
+            clear.get(0).click();
+        }
+    }
+
+    /**
+     * @see NotificationCenterFragment#getMessagesCount()
+     */
+    private static int getMessagesCount(String text) {
+        String[] split = text.trim().split(" ");
+        try {
+            return Integer.parseInt(split[split.length - 1]);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * @param refresh whether to refresh the page after loading, needed when the console is already loaded since only
+     *                the place token changes
+     */
+    private static void loadHome(WebDriver browser, boolean refresh) {
+        String homeUrl = ConfigUtils.getUrl().toString().replaceFirst("#.*", "") + "#"
+                + Console.toPlaceToken(HomePage.class);
+        browser.get(homeUrl);
+        if (refresh) {
+            browser.navigate().refresh();
+        }
+        // the detector can only be installed once the page is loaded, requests sent before are not counted, progress
+        // element and DOM quiet period cover them
+        ConsoleWait.at("ReusableWebDriverFactory.loadHome", browser, 30000).untilConsoleIdle();
+    }
+
+    private static void closeOtherWindows(WebDriver browser) {
+        List<String> handles = new ArrayList<>(browser.getWindowHandles());
+        for (String handle : handles.subList(1, handles.size())) {
+            browser.switchTo().window(handle).close();
+        }
+        browser.switchTo().window(handles.get(0));
+    }
+
+    private static boolean isHealthy(WebDriver browser) {
+        try {
+            if (browser.getWindowHandles().isEmpty()) {
+                return false;
+            }
+            closeOtherWindows(browser);
+            Object readyState = ((JavascriptExecutor) browser).executeScript("return document.readyState;");
+            return "complete".equals(readyState) || "interactive".equals(readyState);
+        } catch (WebDriverException e) {
+            log.debug("Browser health check failed", e);
+            return false;
+        }
+    }
+
+    private static synchronized void quit() {
+        if (browser != null) {
+            try {
+                browser.quit();
+            } catch (WebDriverException e) {
+                log.debug("Unable to quit browser", e);
+            } finally {
+                browser = null;
+            }
+        }
+    }
+
+    private WebDriverFactory getDefaultFactory() {
+        for (Instantiator<?, ?> instantiator : serviceLoader.get().all(Instantiator.class)) {
+            if (instantiator instanceof WebDriverFactory) {
+                return (WebDriverFactory) instantiator;
+            }
+        }
+        throw new IllegalStateException("Default Drone WebDriver factory not found");
+    }
+}
@@ -29,8 +29,10 @@ import org.jboss.hal.testsuite.util.Find;
 import org.jboss.hal.testsuite.util.PropUtils;
 import org.openqa.selenium.By;
 import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.NoSuchElementException;
 import org.openqa.selenium.TimeoutException;
 import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
 import org.openqa.selenium.WebElement;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -54,6 +56,11 @@ public class FinderNavigation {
             this.column = column;
             this.row = row;
         }
+
+        @Override
+        public String toString() {
+            return column + "=" + row;
+        }
     }
 
     public interface Hook {
@@ -62,6 +69,8 @@ public class FinderNavigation {
 
     private static final Logger log = LoggerFactory.getLogger(FinderNavigation.class);
     private static final String WILDCARD = "*";
+    private static final String SELECTED_ROW_CLASS = "cellTableSelectedRowCell";
+    private static final boolean INCREMENTAL = "incremental".equalsIgnoreCase(ConfigUtils.get("suite.finder.navigation", "full"));
 
     private final WebDriver browser;
     private final Class<? extends BasePage> page;
@@ -171,25 +180,47 @@ public class FinderNavigation {
     }
 
     private WebElement[] navigate(Boolean exactRowText) {
+        return navigate(exactRowText, INCREMENTAL);
+    }
+
+    private WebElement[] navigate(Boolean exactRowText, boolean allowReuse) {
         WebElement[] columnRow = new WebElement[2];
+        int start = 0;
+        boolean reused = false;
         if (refresh) {
-           // Console.withBrowser(browser).refreshAndNavigate(page);
-            Console.withBrowser(browser).waitForFirstNavigationPanel(page);
+            start = allowReuse ? reuseOpenedColumns(exactRowText, columnRow) : -1;
+            reused = start >= 0;
+            if (!reused) {
+                Console.withBrowser(browser).waitForFirstNavigationPanel(page);
+                start = 0;
+            }
         }
-        for (int i = 0; i < address.size(); i++) {
+        for (int i = start; i < address.size(); i++) {
             AddressTuple tuple = address.get(i);
 
-            columnRow[0] = browser.findElement(columnSelector(tuple.column));
-            if (!WILDCARD.equals(tuple.row)) {
-                By rowSelector = exactRowText ? rowSelectorEquals(tuple.row) : rowSelector(tuple.row);
-                columnRow[1] = new Find().elementWithGuiTimeout(columnRow[0], rowSelector);
+            By rowSelector = null;
+            try {
+                columnRow[0] = browser.findElement(columnSelector(tuple.column));
+                if (!WILDCARD.equals(tuple.row)) {
+                    rowSelector = exactRowText ? rowSelectorEquals(tuple.row) : rowSelector(tuple.row);
+                    columnRow[1] = new Find().elementWithGuiTimeout(columnRow[0], rowSelector);
+                }
+            } catch (TimeoutException | NoSuchElementException e) {
+                if (!reused) {
+                    throw e;
+                }
+                // reused columns may show outdated content
+                log.debug("Step {} not found in reused finder columns, navigating from scratch", tuple);
+                return navigate(exactRowText, false);
+            }
+            if (rowSelector != null) {
                 if (!columnRow[1].isDisplayed()) {
                     ((JavascriptExecutor) browser).executeScript("arguments[0].scrollIntoView(true);", columnRow[1]);
                 }
                 columnRow[1].click();
                 hook.performAfterRowClick();
                 Graphene.waitModel().until().element(columnRow[0], rowSelector).attribute("class")
-                        .contains("cellTableSelectedRowCell");
+                        .contains(SELECTED_ROW_CLASS);
 
                 // wait for next column to be visible
                 if (i < address.size() - 1) {
@@ -201,7 +232,7 @@ public class FinderNavigation {
                     } catch (TimeoutException e) {
                         if (ConfigUtils.get("jbeap2168workaround") != null && naviRetriesNo++ < 3) {
                             log.warn("Navigation frozen! JBEAP-2168 needs to be fixed!");
-                            return navigate(exactRowText);
+                            return navigate(exactRowText, false);
                         } else {
                             naviRetriesNo = 0;
                             throw new TimeoutException(
@@ -215,6 +246,51 @@ public class FinderNavigation {
         return columnRow;
     }
 
+    /**
+     * Switches to the finder of the page without reloading the console and finds out how many leading steps of the
+     * address are already selected in the opened columns.
+     *
+     * @param columnRow filled with the last already selected column and row
+     * @return number of leading steps which don't need to be clicked again or -1 if the console cannot be reused
+     */
+    private int reuseOpenedColumns(Boolean exactRowText, WebElement[] columnRow) {
+        Console console = Console.withBrowser(browser);
+        if (!console.isReusable()) {
+            return -1;
+        }
+        try {
+            String token = Console.toPlaceToken(page);
+            if (!token.equals(console.getPlaceToken())) {
+                console.goToPlace(token);
+            }
+            Graphene.waitModel().until().element(By.className("navigation-column")).is().visible();
+        } catch (WebDriverException e) {
+            log.debug("Unable to reuse opened finder, navigating from scratch", e);
+            return -1;
+        }
+
+        int matched = 0;
+        for (AddressTuple tuple : address) {
+            if (WILDCARD.equals(tuple.row)) {
+                break;
+            }
+            List<WebElement> columns = browser.findElements(columnSelector(tuple.column));
+            if (columns.isEmpty() || !columns.get(0).isDisplayed()) {
+                break;
+            }
+            By selectedRowSelector = exactRowText ? selectedRowSelectorEquals(tuple.row) : selectedRowSelector(tuple.row);
+            List<WebElement> rows = columns.get(0).findElements(selectedRowSelector);
+            if (rows.isEmpty()) {
+                break;
+            }
+            columnRow[0] = columns.get(0);
+            columnRow[1] = rows.get(0);
+            matched++;
+        }
+        log.debug("Reusing {} of {} finder navigation steps", matched, address.size());
+        return matched;
+    }
+
     /**
      * This method should be called after normal finder navigation was called and made with selectRow or selectColumn
      * so user is navigated to some page.
@@ -266,8 +342,20 @@ public class FinderNavigation {
         return getRowSelector(" and contains(.,'" + label + "')]]");
     }
 
+    private By selectedRowSelectorEquals(String label) {
+        return getSelectedRowSelector(" and text()='" + label + "']]");
+    }
+
+    private By selectedRowSelector(String label) {
+        return getSelectedRowSelector(" and contains(.,'" + label + "')]]");
+    }
+
     private By getRowSelector(String xpathSuffix) {
         String cellClass = PropUtils.get("table.cell.class");
         return By.ByXPath.xpath(".//td[contains(@class,'" + cellClass + "') and descendant::div[@class='navigation-column-item'" + xpathSuffix);
     }
+
+    private By getSelectedRowSelector(String xpathSuffix) {
+        return By.ByXPath.xpath(".//td[contains(@class,'" + SELECTED_ROW_CLASS + "') and descendant::div[@class='navigation-column-item'" + xpathSuffix);
+    }
 }
@@ -6,6 +6,7 @@ import org.jboss.hal.testsuite.cli.Library;
 import org.jboss.hal.testsuite.fragment.formeditor.Editor;
 import org.jboss.hal.testsuite.fragment.shared.util.ResourceManager;
 import org.jboss.hal.testsuite.util.Console;
+import org.jboss.hal.testsuite.util.ConsoleIdleDetector;
 import org.jboss.hal.testsuite.util.PropUtils;
 import org.junit.Assert;
 import org.openqa.selenium.By;
@@ -48,7 +49,8 @@ public class ConfigFragment extends BaseFragment {
     }
 
     /**
-     * Click the save button in read-write (form) mode.
+     * Click the save button in read-write (form) mode. If idle detection is enabled, the result is checked as soon as
+     * the console gets idle instead of waiting for the edit button.
      *
      * @return True if configuration switched into read-only mode. False otherwise
      */
@@ -58,7 +60,11 @@ public class ConfigFragment extends BaseFragment {
             Console.withBrowser(browser).pageDown();
             Library.letsSleep(100);
         }
+        ConsoleIdleDetector.installIfEnabled(browser);
         button.click();
+        if (ConsoleIdleDetector.isEnabled() && Console.withBrowser(browser).waitUntilIdle()) {
+            return root.findElements(getEditButtonSelector()).stream().anyMatch(WebElement::isDisplayed);
+        }
         try {
             Graphene.waitModel().until().element(getEditButton()).is().visible();
             return true;
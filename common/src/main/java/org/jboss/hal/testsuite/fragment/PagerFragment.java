@@ -3,15 +3,24 @@ package org.jboss.hal.testsuite.fragment;
 import org.jboss.arquillian.graphene.findby.ByJQuery;
 import org.jboss.hal.testsuite.util.PropUtils;
 import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
 import org.openqa.selenium.WebElement;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.util.List;
 
 /**
+ * Pager of resource tables. Parsed pager info is cached and read again only when the pager's DOM has changed since
+ * the last read, which is detected by a mutation observer attached to the pager element. Page size is remembered from
+ * the last page seen which was not the last one, since the last page may be partial.
+ *
  * @author jbliznak@redhat.com
  */
 public class PagerFragment extends BaseFragment {
 
+    private static final Logger log = LoggerFactory.getLogger(PagerFragment.class);
+
     public static final String CLASS_NAME_PAGER = PropUtils.get("resourcepager.pager.class");
     public static final int IDX_FIRST_PAGE = 0;
     public static final int IDX_PREVIOUS_PAGE = 1;
@@ -23,25 +32,141 @@ public class PagerFragment extends BaseFragment {
     public static final int IDX_RECORDS_TO = 2;
     public static final int IDX_RECORDS_TOTAL = 3;
 
+    /**
+     * Returns version of the pager and text of its info (idx-th cell given by third argument) if the version differs
+     * from the one given by second argument, null otherwise. The version is a counter on the pager element incremented
+     * on every mutation, so every fragment instance of the same pager can tell on its own whether it has changed.
+     * innerHTML is read since getText() is not reliable here.
+     */
+    private static final String STATE_SCRIPT =
+            "var pager = arguments[0];"
+            + "if (pager.__halPagerVersion === undefined) {"
+            + "  pager.__halPagerVersion = 0;"
+            + "  new MutationObserver(function() { pager.__halPagerVersion++; }).observe(pager,"
+            + "      {childList: true, subtree: true, attributes: true, characterData: true});"
+            + "}"
+            + "if (pager.__halPagerVersion === arguments[1]) { return null; }"
+            + "var cells = pager.querySelectorAll('tr td');"
+            + "var div = cells.length > arguments[2] ? cells[arguments[2]].querySelector('div') : null;"
+            + "return [pager.__halPagerVersion, div ? div.innerHTML : ''];";
+
+    /**
+     * Clicks image in idx-th cell of the pager given number of times.
+     */
+    private static final String CLICK_SCRIPT =
+            "var cells = arguments[0].querySelectorAll('tr td');"
+            + "var img = cells.length > arguments[1] ? cells[arguments[1]].querySelector('img') : null;"
+            + "if (!img) { return false; }"
+            + "for (var i = 0; i < arguments[2]; i++) { img.click(); }"
+            + "return true;";
+
+    private State state;
+    private long stateVersion = -1;
+    private int pageSize;
+
     /**
      * @return total count of records or -1 if it can't be parsed from HTML
      */
     public int getTotalRecordsCount() {
-        return getNthNumberFromInfo(IDX_RECORDS_TOTAL);
+        return getState().getTotal();
     }
 
     /**
      * @return current displayed 'from' number of records or -1 if it can't be parsed from HTML
      */
     public int getCurrentFromNumber() {
-        return getNthNumberFromInfo(IDX_RECORDS_FROM);
+        return getState().getFrom();
     }
 
     /**
      * @return current displayed 'to' number of records or -1 if it can't be parsed from HTML
      */
     public int getCurrentToNumber() {
-        return getNthNumberFromInfo(IDX_RECORDS_TO);
+        return getState().getTo();
+    }
+
+    /**
+     * @return number of records per page or 0 if not known yet, i.e. if only the last page has been seen so far
+     */
+    public int getPageSize() {
+        getState();
+        return pageSize;
+    }
+
+    /**
+     * Reads the pager info with a single round trip. If the pager has not changed since the last read, the cached state
+     * is returned.
+     *
+     * @return current state of the pager
+     */
+    public State getState() {
+        List<?> result = (List<?>) ((JavascriptExecutor) browser).executeScript(STATE_SCRIPT, root,
+                state == null ? -1 : stateVersion, IDX_PAGER_INFO);
+        if (result != null || state == null) {
+            stateVersion = result == null ? -1 : ((Number) result.get(0)).longValue();
+            state = State.parse(result == null ? null : (String) result.get(1));
+            if (state.getFrom() > 0 && state.getTo() < state.getTotal()) {
+                pageSize = state.getCount();
+            }
+        }
+        return state;
+    }
+
+    /**
+     * Navigate directly to the page which contains record of given index. The number of clicks needed is computed
+     * from the current state and page size, starting from current, first or last page, whichever is the closest,
+     * and all the clicks are done in a single round trip. If only the partial last page has been seen so far, it first
+     * moves to the previous page to learn the page size. Falls back to paging one by one if the pager ends up
+     * elsewhere than expected.
+     *
+     * @param index zero-based index of the record
+     * @return whether page containing the record is displayed
+     */
+    public boolean goToPageContaining(int index) {
+        State current = getState();
+        if (current.contains(index)) {
+            return true;
+        }
+        if (index < 0 || index >= current.getTotal() || current.getFrom() <= 0) {
+            return false;
+        }
+
+        if (pageSize > 0) {
+            int targetPage = index / pageSize;
+            int currentPage = (current.getFrom() - 1) / pageSize;
+            int lastPage = (current.getTotal() - 1) / pageSize;
+
+            int fromCurrent = Math.abs(targetPage - currentPage);
+            int fromFirst = 1 + targetPage;
+            int fromLast = 1 + lastPage - targetPage;
+
+            if (fromCurrent <= fromFirst && fromCurrent <= fromLast) {
+                clickNthCell(targetPage < currentPage ? IDX_PREVIOUS_PAGE : IDX_NEXT_PAGE, fromCurrent);
+            } else if (fromFirst <= fromLast) {
+                clickNthCell(IDX_FIRST_PAGE, 1);
+                clickNthCell(IDX_NEXT_PAGE, fromFirst - 1);
+            } else {
+                clickNthCell(IDX_LAST_PAGE, 1);
+                clickNthCell(IDX_PREVIOUS_PAGE, fromLast - 1);
+            }
+
+            if (getState().contains(index)) {
+                return true;
+            }
+            log.debug("Pager did not end up at page containing record {} ({}), paging one by one", index, state);
+        } else if (goToPreviousPage() && pageSize > 0) {
+            // only the partial last page has been seen, the previous one is full
+            return goToPageContaining(index);
+        } else {
+            log.debug("Page size is not known ({}), paging one by one to record {}", state, index);
+        }
+        while (index < getCurrentFromNumber() - 1 && goToPreviousPage()) {
+            log.trace("Moved to previous page");
+        }
+        while (index >= getCurrentToNumber() && goToNextPage()) {
+            log.trace("Moved to next page");
+        }
+        return getState().contains(index);
     }
 
     /**
@@ -77,18 +202,17 @@ public class PagerFragment extends BaseFragment {
     }
 
     /**
-     * @return whether displayed page is the first (no previous page exists)
+     * @return whether displayed page is the first (no previous page exists), false if pager info can't be parsed
      */
     public boolean isFirstPage() {
-        int currentFromNumber = getCurrentFromNumber();
-        return currentFromNumber == 1 || currentFromNumber == 0; //0 for no records
+        return getState().isFirst();
     }
 
     /**
-     * @return whether displayed page is the last (no next page exists)
+     * @return whether displayed page is the last (no next page exists), false if pager info can't be parsed
      */
     public boolean isLastPage() {
-        return getCurrentToNumber() == getTotalRecordsCount();
+        return getState().isLast();
     }
 
     /**
@@ -107,30 +231,132 @@ public class PagerFragment extends BaseFragment {
 
     /**
      * @param idx zero-based index
-     * @return whether navigate to the page by clicking on idx-th TD IMG element of root table
+     * @return whether navigate to the page by clicking on idx-th TD IMG element of root table, i.e. whether the pager
+     * info has changed
      */
     private boolean goToPageByClickingNthCell(int idx) {
         WebElement td = getNthCell(idx);
         WebElement img = td.findElement(By.tagName("img"));
-        final int previousFromNumber = getCurrentFromNumber();
+        final String previousInfo = getState().getInfo();
         img.click();
 
-        return getCurrentFromNumber() != previousFromNumber;
+        return !getState().getInfo().equals(previousInfo);
     }
 
     /**
-     * @param idx 1-based index
-     * @return idx-th number in pager info TD element or -1 if can't be parsed
+     * @param idx   zero-based index
+     * @param count how many times to click on idx-th TD IMG element of root table
      */
-    private int getNthNumberFromInfo(int idx) {
-        WebElement pageInfoTd = getNthCell(IDX_PAGER_INFO);
-        //workaround - #getText() doesn't seem to be reliable in this case
-        String text = pageInfoTd.findElement(By.tagName("div")).getAttribute("innerHTML");
+    private void clickNthCell(int idx, int count) {
+        if (count > 0) {
+            ((JavascriptExecutor) browser).executeScript(CLICK_SCRIPT, root, idx, count);
+        }
+    }
 
-        if (text.matches(PAGER_INFO_PATTERN)) {
-            return Integer.parseInt(text.replaceFirst(PAGER_INFO_PATTERN, "$" + idx));
-        } else {
-            return -1;
+    /**
+     * Parsed pager info, i.e. <code>from-to of total</code> numbers of displayed records.
+     */
+    public static final class State {
+
+        private final String info;
+        private final int from;
+        private final int to;
+        private final int total;
+
+        private State(String info) {
+            this.info = info == null ? "" : info;
+            this.from = getNthNumber(info, IDX_RECORDS_FROM);
+            this.to = getNthNumber(info, IDX_RECORDS_TO);
+            this.total = getNthNumber(info, IDX_RECORDS_TOTAL);
+        }
+
+        /**
+         * @param info text of pager info, e.g. <code>11-20 of 43</code>
+         * @return parsed state, with all numbers -1 if the text can't be parsed
+         */
+        public static State parse(String info) {
+            return new State(info);
+        }
+
+        /**
+         * @return text of pager info as displayed, empty if there is none
+         */
+        public String getInfo() {
+            return info;
+        }
+
+        /**
+         * @return whether pager info could be parsed, if not it is unknown which page is displayed
+         */
+        public boolean isParsed() {
+            return total >= 0;
+        }
+
+        /**
+         * @return whether the first page is displayed, false if pager info can't be parsed
+         */
+        public boolean isFirst() {
+            return from == 1 || from == 0; //0 for no records
+        }
+
+        /**
+         * @return whether the last page is displayed, false if pager info can't be parsed
+         */
+        public boolean isLast() {
+            return isParsed() && to == total;
+        }
+
+        /**
+         * @return 1-based number of the first displayed record or -1 if pager info can't be parsed
+         */
+        public int getFrom() {
+            return from;
+        }
+
+        /**
+         * @return 1-based number of the last displayed record or -1 if pager info can't be parsed
+         */
+        public int getTo() {
+            return to;
+        }
+
+        /**
+         * @return total count of records or -1 if pager info can't be parsed
+         */
+        public int getTotal() {
+            return total;
+        }
+
+        /**
+         * @return number of records displayed on current page, which is less than page size on a partial last page
+         */
+        public int getCount() {
+            return from > 0 ? to - from + 1 : 0;
+        }
+
+        /**
+         * @param index zero-based index of the record
+         * @return whether the record is displayed on current page
+         */
+        public boolean contains(int index) {
+            return from > 0 && from <= index + 1 && index + 1 <= to;
+        }
+
+        /**
+         * @param idx 1-based index
+         * @return idx-th number in pager info or -1 if can't be parsed
+         */
+        private static int getNthNumber(String info, int idx) {
+            if (info != null && info.matches(PAGER_INFO_PATTERN)) {
+                return Integer.parseInt(info.replaceFirst(PAGER_INFO_PATTERN, "$" + idx));
+            } else {
+                return -1;
+            }
+        }
+
+        @Override
+        public String toString() {
+            return from + "-" + to + " of " + total;
         }
     }
 }
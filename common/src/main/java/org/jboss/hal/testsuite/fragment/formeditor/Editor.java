@@ -3,10 +3,11 @@ package org.jboss.hal.testsuite.fragment.formeditor;
 import org.jboss.arquillian.graphene.Graphene;
 import org.jboss.arquillian.graphene.findby.ByJQuery;
 import org.jboss.hal.testsuite.fragment.BaseFragment;
+import org.jboss.hal.testsuite.util.ConfigUtils;
 import org.jboss.hal.testsuite.util.Console;
-import org.jboss.hal.testsuite.util.Library;
+import org.jboss.hal.testsuite.util.HumanTyping;
 import org.openqa.selenium.By;
-import org.openqa.selenium.Keys;
+import org.openqa.selenium.JavascriptExecutor;
 import org.openqa.selenium.NoSuchElementException;
 import org.openqa.selenium.TimeoutException;
 import org.openqa.selenium.WebElement;
@@ -15,6 +16,10 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -24,6 +29,79 @@ public class Editor extends BaseFragment {
 
     private static final Logger log = LoggerFactory.getLogger(Editor.class);
 
+    private static final boolean BULK_FILL = Boolean.parseBoolean(ConfigUtils.get("suite.editor.bulk.fill", "true"));
+
+    /**
+     * Looks up visible form element for given identifier by the selectors of {@link #findInputElement(String, String)},
+     * {@link #findTextElement(String)} and {@link #findSelect(String)}. Selectors are tried one by one, the exact ones
+     * first, so that e.g. <code>pool-size</code> doesn't match <code>max-pool-size</code> field preceding it. Boolean
+     * values are looked up among checkboxes, other values among text inputs, textareas and selects.
+     */
+    private static final String FIND_SCRIPT =
+            "var root = arguments[0];"
+            + "var visible = function(e) { return e.offsetWidth > 0 || e.offsetHeight > 0; };"
+            + "var find = function(id, checkbox) {"
+            + "  var q = JSON.stringify(id), exact = JSON.stringify('_' + id), row = 'tr[data-dmr-attr=' + q + '] ';"
+            + "  var selectors = checkbox"
+            + "      ? ['input[type=checkbox][id$=' + exact + ']', 'input[type=checkbox][name=' + q + ']',"
+            + "         row + 'input[type=checkbox]']"
+            + "      : ['input[type=text][id$=' + exact + ']', 'input[type=text][name=' + q + ']', row + 'input',"
+            + "         'select[id$=' + exact + ']', 'select[name=' + q + ']', row + 'select', row + 'textarea',"
+            + "         'input[id$=' + q + ']', 'input[name=' + q + ']', 'select[id$=' + q + ']'];"
+            + "  for (var s = 0; s < selectors.length; s++) {"
+            + "    var elements = root.querySelectorAll(selectors[s]);"
+            + "    for (var i = 0; i < elements.length; i++) { if (visible(elements[i])) { return elements[i]; } }"
+            + "  }"
+            + "  return null;"
+            + "};"
+            + "var read = function(e) {"
+            + "  if (e.type === 'checkbox') { return e.checked; }"
+            + "  if (e.tagName.toLowerCase() === 'select') {"
+            + "    return e.selectedIndex < 0 ? null : e.options[e.selectedIndex].text.trim();"
+            + "  }"
+            + "  return e.value;"
+            + "};";
+
+    /**
+     * Sets all given values and fires the events GWT form items listen to.
+     */
+    private static final String FILL_SCRIPT = FIND_SCRIPT
+            + "var values = arguments[1];"
+            + "var fire = function(e, type) {"
+            + "  var event = document.createEvent('HTMLEvents');"
+            + "  event.initEvent(type, true, true);"
+            + "  e.dispatchEvent(event);"
+            + "};"
+            + "for (var id in values) {"
+            + "  var value = values[id], e = find(id, typeof value === 'boolean');"
+            + "  if (!e) { continue; }"
+            + "  if (e.type === 'checkbox') {"
+            + "    if (e.checked !== value) { e.click(); }"
+            + "  } else if (e.tagName.toLowerCase() === 'select') {"
+            + "    for (var i = 0; i < e.options.length; i++) {"
+            + "      if (e.options[i].text.trim() === value) { e.selectedIndex = i; fire(e, 'change'); break; }"
+            + "    }"
+            + "  } else {"
+            + "    e.focus();"
+            + "    e.value = value;"
+            + "    fire(e, 'input');"
+            + "    fire(e, 'keyup');"
+            + "    fire(e, 'change');"
+            + "    fire(e, 'blur');"
+            + "  }"
+            + "}";
+
+    /**
+     * Reads back values of all given identifiers, null for identifiers which were not found.
+     */
+    private static final String READ_SCRIPT = FIND_SCRIPT
+            + "var result = {};"
+            + "for (var id in arguments[1]) {"
+            + "  var e = find(id, typeof arguments[1][id] === 'boolean');"
+            + "  result[id] = e ? read(e) : null;"
+            + "}"
+            + "return result;";
+
     /**
      * Returns either a input of type text or textarea element with given identifier (name or id).
      *
@@ -53,8 +131,46 @@ public class Editor extends BaseFragment {
     }
 
     /**
-     * Enters text as humanly as possible. E.g. makes pauses between characters and utilizes keyboard shortcuts. <b>
-     * Use only as a workaround when {@link #text(String, String)} is not working properly!</b>
+     * @return false if bulk filling was switched off by <code>suite.editor.bulk.fill=false</code>
+     */
+    public static boolean isBulkFillEnabled() {
+        return BULK_FILL;
+    }
+
+    /**
+     * Sets values of multiple form elements at once. All values are set by a single script which fires
+     * <code>input</code>, <code>keyup</code>, <code>change</code> (and <code>blur</code>) events GWT form items listen
+     * to, then all values are checked by a single read-back.
+     *
+     * @param values identifier to value map, {@link Boolean} values are set to checkboxes, other values (converted to
+     *               String) to text elements or selects (by visible text)
+     * @return identifiers of elements which were not found or don't hold the expected value after the fill; set them
+     * one by one, e.g. by {@link #text(String, String)}
+     */
+    public Set<String> fill(Map<String, Object> values) {
+        log.debug("bulk filling {}", values);
+        Map<String, Object> expected = new LinkedHashMap<>();
+        values.forEach((identifier, value) -> expected.put(identifier,
+                value instanceof Boolean ? value : String.valueOf(value)));
+        JavascriptExecutor executor = (JavascriptExecutor) browser;
+        executor.executeScript(FILL_SCRIPT, root, expected);
+        Map<?, ?> actual = (Map<?, ?>) executor.executeScript(READ_SCRIPT, root, expected);
+
+        Set<String> notFilled = new LinkedHashSet<>();
+        expected.forEach((identifier, value) -> {
+            if (!value.equals(actual.get(identifier))) {
+                log.debug("bulk fill of '{}' failed, expected '{}' but was '{}'", identifier, value,
+                        actual.get(identifier));
+                notFilled.add(identifier);
+            }
+        });
+        return notFilled;
+    }
+
+    /**
+     * Enters text as humanly as possible. E.g. types character by character and utilizes keyboard shortcuts, paced
+     * by {@link HumanTyping}. <b>Use only as a workaround when {@link #text(String, String)} is not working
+     * properly!</b>
      * @param identifier identifier of element to be written to
      * @param value a value to be entered
      */
@@ -63,14 +179,7 @@ public class Editor extends BaseFragment {
         if (!element.isDisplayed()) {
             Console.withBrowser(browser).pageDown();
         }
-        element.click();
-        element.sendKeys(Keys.chord(Keys.CONTROL, "a"));
-        Library.letsSleep(30);
-        element.sendKeys(Keys.DELETE);
-        for (char character : value.toCharArray()) {
-            element.sendKeys(String.valueOf(character));
-            Library.letsSleep(20);
-        }
+        HumanTyping.replace(browser, element, value);
     }
 
     /**
@@ -3,12 +3,12 @@ package org.jboss.hal.testsuite.fragment.rhaccess;
 import org.jboss.arquillian.graphene.Graphene;
 import org.jboss.arquillian.graphene.findby.ByJQuery;
 import org.jboss.hal.testsuite.fragment.PopUpFragment;
-import org.jboss.hal.testsuite.util.Library;
 import org.jboss.hal.testsuite.util.PropUtils;
 import org.openqa.selenium.By;
 import org.openqa.selenium.WebElement;
 
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Created by mvelas on 3.11.14.
@@ -33,10 +33,11 @@ public class RHAccessMenuFragment extends PopUpFragment {
         List<WebElement> menuEntries = root.findElements(ByJQuery.selector("div." + ENTRY_ITEM_CLASS));
         menuEntries.get(entry.index).click();
 
-        // TODO - this wait must be implemented in more fancy way
-        Library.letsSleep(RH_ACCESS_TIMEOUT * 1000);
+        By iFrameSelector = ByJQuery.selector("iframe.gwt-Frame");
+        Graphene.waitModel().withTimeout(RH_ACCESS_TIMEOUT, TimeUnit.SECONDS).until().element(iFrameSelector).is()
+                .present();
 
-        WebElement iFrame = browser.findElement(ByJQuery.selector("iframe.gwt-Frame"));
+        WebElement iFrame = browser.findElement(iFrameSelector);
         WebElement content = browser.switchTo().frame(iFrame).findElement(By.tagName("body"));
         return content;
     }
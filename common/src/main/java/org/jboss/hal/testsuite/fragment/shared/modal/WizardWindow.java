@@ -1,6 +1,7 @@
 package org.jboss.hal.testsuite.fragment.shared.modal;
 
 import org.jboss.hal.testsuite.util.Console;
+import org.jboss.hal.testsuite.util.ConsoleIdleDetector;
 import org.junit.Assert;
 import org.jboss.arquillian.graphene.Graphene;
 import org.jboss.hal.testsuite.fragment.WindowFragment;
@@ -22,6 +23,7 @@ public class WizardWindow extends WindowFragment {
 
     public void next() {
         String label = PropUtils.get("modals.wizard.next.label");
+        ConsoleIdleDetector.installIfEnabled(browser);
         clickButton(label);
 
         Console.withBrowser(browser).waitUntilFinished();
@@ -29,6 +31,7 @@ public class WizardWindow extends WindowFragment {
 
     public void back() {
         String label = PropUtils.get("modals.wizard.back.label");
+        ConsoleIdleDetector.installIfEnabled(browser);
         clickButton(label);
 
         Console.withBrowser(browser).waitUntilFinished();
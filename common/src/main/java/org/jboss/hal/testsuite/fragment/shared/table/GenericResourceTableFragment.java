@@ -47,15 +47,9 @@ public class GenericResourceTableFragment<T extends ResourceTableRowFragment> ex
         T row = null;
 
         if (this.hasPager()) {
-            this.getPager().goToFirstPage();
-            do {
-                if (this.getPager().getCurrentFromNumber() <= index + 1
-                        && index + 1 <= this.getPager().getCurrentToNumber()) {
-                    row = this.getVisibleRow(index - this.getPager().getCurrentFromNumber());
-                    break;
-                }
-                log.trace("Trying to move to next page");
-            } while (this.getPager().goToNextPage());
+            if (this.getPager().goToPageContaining(index)) {
+                row = this.getVisibleRow(index + 1 - this.getPager().getCurrentFromNumber());
+            }
         } else {
             row = this.getVisibleRow(index);
         }
@@ -117,21 +111,10 @@ public class GenericResourceTableFragment<T extends ResourceTableRowFragment> ex
      * @return all rows from table (from all pages)
      */
     public List<T> getAllRows() {
-
-        List<T> rows = new ArrayList<>();
-
-        if (!hasPager()) {
-            return this.getVisibleRows();
-        } else {
-            this.getPager().goToFirstPage();
-
-            do {
-                log.trace("Adding all visible rows to all rows list");
-                rows.addAll(this.getVisibleRows());
-            } while (this.getPager().goToNextPage());
-
-            return rows;
-        }
+        return getAllSnapshots().stream()
+                .flatMap(snapshot -> snapshot.getRows().stream())
+                .map(row -> Graphene.createPageFragment(type, row.getElement()))
+                .collect(Collectors.toList());
     }
 
     /**
@@ -141,36 +124,25 @@ public class GenericResourceTableFragment<T extends ResourceTableRowFragment> ex
      */
     public T getRowByText(final int col, final String text) {
 
-        T row = null;
-
-        if (this.hasPager()) {
-            this.getPager().goToFirstPage();
-            do {
-                List<T> rowsWithText = findVisibleRowsByCellValueAtIndex(col, text);
-
-                if (rowsWithText.isEmpty()) {
-                    log.debug("Row with text <{}> at column {} not found on this page of table.", text, col);
-                } else {
-                    log.debug("Row with text <{}> at column {} found.", text, col);
-                    row = rowsWithText.get(0);
-                    break;
-                }
-
-                log.debug("Trying to move to next page");
-            } while (this.getPager().goToNextPage());
-        } else {
-            List<T> rowsWithText = findVisibleRowsByCellValueAtIndex(col, text);
-            if (!rowsWithText.isEmpty()) {
-                row = rowsWithText.get(0);
+        TableSnapshot snapshot = getFirstPageSnapshot();
+        TableSnapshot.Row found = snapshot.findRow(col, text);
+        while (found == null && !snapshot.isLastPage()) {
+            log.debug("Row with text <{}> at column {} not found on this page of table.", text, col);
+            log.debug("Trying to move to next page");
+            if (!this.getPager().goToNextPage()) {
+                break;
             }
+            snapshot = getSnapshot();
+            found = snapshot.findRow(col, text);
         }
 
-        if (row != null) {
+        if (found != null) {
             log.debug("Row with text <{}> at column {} found.", text, col);
+            return Graphene.createPageFragment(type, found.getElement());
         } else {
             log.debug("Row with text <{}> at column {} not found at this table.", text, col);
+            return null;
         }
-        return row;
     }
 
     /**
@@ -225,29 +197,49 @@ public class GenericResourceTableFragment<T extends ResourceTableRowFragment> ex
         return rowElements;
     }
 
-    private List<T> findVisibleRowsByCellValueAtIndex(final int columnIndex, String cellValue) {
-
-        List<T> rows = getVisibleRows().stream()
-                .filter(item -> item.getCellValue(columnIndex).equals(cellValue))
-                .collect(Collectors.toList());
-
-        log.debug("Found {} rows with text '{}' at column {}", rows.size(), cellValue, columnIndex);
-
-        return rows;
-    }
-
     /**
      *
      * @param col  zero-based column index where to search
      * @return list of retrieved values
      */
     public List<String> getTextInColumn(int col) {
-        List<String> values = new ArrayList<>();
-        List<T> rows = getAllRows();
+        return getAllSnapshots().stream()
+                .flatMap(snapshot -> snapshot.getColumn(col).stream())
+                .collect(Collectors.toList());
+    }
 
-        values.addAll(rows.stream().map(row -> row.getCellValue(col)).collect(Collectors.toList()));
+    /**
+     * Reads currently displayed page of the table with a single script execution.
+     *
+     * @return snapshot of cell texts, selection state and pager info of current page
+     */
+    public TableSnapshot getSnapshot() {
+        return TableSnapshot.take(browser, root);
+    }
+
+    /**
+     * Reads the entire table page by page, each page with a single script execution. Leaves the last page displayed.
+     *
+     * @return snapshots of all pages of the table
+     */
+    public List<TableSnapshot> getAllSnapshots() {
+        List<TableSnapshot> snapshots = new ArrayList<>();
+        TableSnapshot snapshot = getFirstPageSnapshot();
+        snapshots.add(snapshot);
+        while (!snapshot.isLastPage() && this.getPager().goToNextPage()) {
+            log.trace("Adding snapshot of next page");
+            snapshot = getSnapshot();
+            snapshots.add(snapshot);
+        }
+        return snapshots;
+    }
 
-        return values;
+    private TableSnapshot getFirstPageSnapshot() {
+        TableSnapshot snapshot = getSnapshot();
+        if (!snapshot.isFirstPage() && this.getPager().goToFirstPage()) {
+            snapshot = getSnapshot();
+        }
+        return snapshot;
     }
 
     private WebElement getTableRoot() {
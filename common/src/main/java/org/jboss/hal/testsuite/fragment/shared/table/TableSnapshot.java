@@ -0,0 +1,207 @@
+package org.jboss.hal.testsuite.fragment.shared.table;
+
+import org.jboss.hal.testsuite.fragment.PagerFragment;
+import org.jboss.hal.testsuite.util.PropUtils;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Content of currently displayed page of a resource table read by a single script execution. Cell texts, selection
+ * state and the pager info are taken at once, so that searching through the table doesn't need any further round trip
+ * to the browser. Row elements are kept only for the final interaction (e.g. click on the found row).
+ * <p/>
+ * Snapshot is not updated, take a new one whenever the table might have changed (e.g. after switching the page).
+ */
+public final class TableSnapshot {
+
+    private static final String TABLE_CLASS = PropUtils.get("resourcetable.class");
+
+    private static final String SNAPSHOT_SCRIPT =
+            "var root = arguments[0], tableClass = arguments[1], pagerClass = arguments[2], selectedClass = arguments[3];"
+            + "var visible = function(e) { return e.offsetWidth > 0 || e.offsetHeight > 0; };"
+            + "var first = function(list) {"
+            + "  for (var i = 0; i < list.length; i++) { if (visible(list[i])) { return list[i]; } }"
+            + "  return null;"
+            + "};"
+            + "var table = first(root.getElementsByClassName(tableClass)) || root;"
+            + "var rows = [], trs = table.querySelectorAll('tr.cellTableEvenRow, tr.cellTableOddRow');"
+            + "for (var i = 0; i < trs.length; i++) {"
+            + "  var cells = [], tds = trs[i].getElementsByClassName('cellTableCell');"
+            + "  for (var j = 0; j < tds.length; j++) {"
+            + "    var text = tds[j].innerText;"
+            + "    cells.push((text === undefined ? tds[j].textContent : text).trim());"
+            + "  }"
+            + "  rows.push([trs[i], (' ' + trs[i].className + ' ').indexOf(' ' + selectedClass + ' ') >= 0, cells]);"
+            + "}"
+            + "var info = null, pager = first(root.getElementsByClassName(pagerClass));"
+            + "if (pager) {"
+            + "  var pagerCells = pager.querySelectorAll('tr td');"
+            + "  var div = pagerCells.length > 2 ? pagerCells[2].querySelector('div') : null;"
+            + "  info = div ? div.innerHTML : '';"
+            + "}"
+            + "return [rows, info];";
+
+    private final List<Row> rows;
+    private final PagerFragment.State pagerState;
+
+    private TableSnapshot(List<Row> rows, String pagerInfo) {
+        this.rows = Collections.unmodifiableList(rows);
+        this.pagerState = pagerInfo == null ? null : PagerFragment.State.parse(pagerInfo);
+    }
+
+    /**
+     * Reads currently displayed page of the table.
+     *
+     * @param browser browser the table is displayed in
+     * @param root    root of the table fragment
+     */
+    @SuppressWarnings("unchecked")
+    static TableSnapshot take(WebDriver browser, WebElement root) {
+        List<Object> result = (List<Object>) ((JavascriptExecutor) browser).executeScript(SNAPSHOT_SCRIPT, root,
+                TABLE_CLASS, PagerFragment.CLASS_NAME_PAGER, ResourceTableRowFragment.ROW_SELECTED_CLASS);
+
+        List<Object> rawRows = (List<Object>) result.get(0);
+        List<Row> rows = new ArrayList<>(rawRows.size());
+        for (int i = 0; i < rawRows.size(); i++) {
+            List<Object> rawRow = (List<Object>) rawRows.get(i);
+            List<String> cells = ((List<Object>) rawRow.get(2)).stream()
+                    .map(String::valueOf)
+                    .collect(Collectors.toList());
+            rows.add(new Row(i, (WebElement) rawRow.get(0), (Boolean) rawRow.get(1), cells));
+        }
+        return new TableSnapshot(rows, (String) result.get(1));
+    }
+
+    /**
+     * @return all rows displayed on current page
+     */
+    public List<Row> getRows() {
+        return rows;
+    }
+
+    /**
+     * @param col  zero-based column index where to search
+     * @param text text to search
+     * @return first row that contains given text in given column or null if no such row found
+     */
+    public Row findRow(int col, String text) {
+        return rows.stream()
+                .filter(row -> row.getCellValue(col).equals(text))
+                .findFirst()
+                .orElse(null);
+    }
+
+    /**
+     * @param col zero-based column index
+     * @return values of given column on current page
+     */
+    public List<String> getColumn(int col) {
+        return rows.stream().map(row -> row.getCellValue(col)).collect(Collectors.toList());
+    }
+
+    /**
+     * @return first selected row on current page or null if no row is selected
+     */
+    public Row getSelectedRow() {
+        return rows.stream().filter(Row::isSelected).findFirst().orElse(null);
+    }
+
+    /**
+     * @return whether the table has pager associated with it
+     */
+    public boolean hasPager() {
+        return pagerState != null;
+    }
+
+    /**
+     * @return 'from' number of displayed records as shown by pager or -1 if there is no pager or it can't be parsed
+     */
+    public int getCurrentFromNumber() {
+        return pagerState == null ? -1 : pagerState.getFrom();
+    }
+
+    /**
+     * @return 'to' number of displayed records as shown by pager or -1 if there is no pager or it can't be parsed
+     */
+    public int getCurrentToNumber() {
+        return pagerState == null ? -1 : pagerState.getTo();
+    }
+
+    /**
+     * @return total count of records as shown by pager or -1 if there is no pager or it can't be parsed
+     */
+    public int getTotalRecordsCount() {
+        return pagerState == null ? -1 : pagerState.getTotal();
+    }
+
+    /**
+     * @return whether displayed page is the first one, true for table without pager, false if pager info can't be
+     * parsed
+     */
+    public boolean isFirstPage() {
+        return pagerState == null || pagerState.isFirst();
+    }
+
+    /**
+     * @return whether displayed page is the last one (no next page exists), true for table without pager, false if
+     * pager info can't be parsed, i.e. try to go to the next page then
+     */
+    public boolean isLastPage() {
+        return pagerState == null || pagerState.isLast();
+    }
+
+    /**
+     * Single row of the snapshot.
+     */
+    public static final class Row {
+
+        private final int index;
+        private final WebElement element;
+        private final boolean selected;
+        private final List<String> cells;
+
+        private Row(int index, WebElement element, boolean selected, List<String> cells) {
+            this.index = index;
+            this.element = element;
+            this.selected = selected;
+            this.cells = Collections.unmodifiableList(cells);
+        }
+
+        /**
+         * @return zero-based index of the row on current page
+         */
+        public int getIndex() {
+            return index;
+        }
+
+        /**
+         * @return root element of the row, use it for the final interaction only
+         */
+        public WebElement getElement() {
+            return element;
+        }
+
+        public boolean isSelected() {
+            return selected;
+        }
+
+        public List<String> getCells() {
+            return cells;
+        }
+
+        public String getCellValue(int index) {
+            try {
+                return cells.get(index);
+            } catch (IndexOutOfBoundsException e) {
+                throw new TooFewColumnsException("Cell with index " + index + " was not found on this row. There is " +
+                        "probably too few columns (" + cells.size() + ").", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+
+package org.jboss.hal.testsuite.impact;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.lang.reflect.Modifier;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Reads classes referenced by a compiled class from its constant pool, i.e. classes it instantiates, calls, extends,
+ * declares as field, parameter or return type or annotates with. No bytecode library is needed for that. Nested
+ * classes are reported as their top level class, since that's what a source file change maps to.
+ */
+final class ClassFileReferences {
+
+    private static final Pattern DESCRIPTOR = Pattern.compile("L([\\w/$]+)[;<]");
+
+    private final String className;
+    private final boolean concrete;
+    private final Set<String> references;
+
+    private ClassFileReferences(String className, boolean concrete, Set<String> references) {
+        this.className = className;
+        this.concrete = concrete;
+        this.references = references;
+    }
+
+    /**
+     * @param classFile compiled class
+     * @param prefix    only references to classes with this name prefix are kept, e.g.
+     *                  <code>org.jboss.hal.testsuite.</code>
+     */
+    static ClassFileReferences read(File classFile, String prefix) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(classFile)))) {
+            return read(in, prefix);
+        }
+    }
+
+    private static ClassFileReferences read(DataInputStream in, String prefix) throws IOException {
+        if (in.readInt() != 0xCAFEBABE) {
+            throw new IOException("Not a class file");
+        }
+        in.readUnsignedShort(); // minor version
+        in.readUnsignedShort(); // major version
+        int poolSize = in.readUnsignedShort();
+        String[] utf8 = new String[poolSize];
+        int[] classNames = new int[poolSize];
+        for (int i = 1; i < poolSize; i++) {
+            int tag = in.readUnsignedByte();
+            switch (tag) {
+                case 1: // Utf8
+                    utf8[i] = in.readUTF();
+                    break;
+                case 7: // Class
+                    classNames[i] = in.readUnsignedShort();
+                    break;
+                case 8: // String
+                case 16: // MethodType
+                case 19: // Module
+                case 20: // Package
+                    in.readUnsignedShort();
+                    break;
+                case 15: // MethodHandle
+                    in.readUnsignedByte();
+                    in.readUnsignedShort();
+                    break;
+                case 3: // Integer
+                case 4: // Float
+                case 9: // Fieldref
+                case 10: // Methodref
+                case 11: // InterfaceMethodref
+                case 12: // NameAndType
+                case 17: // Dynamic
+                case 18: // InvokeDynamic
+                    in.readInt();
+                    break;
+                case 5: // Long
+                case 6: // Double
+                    in.readLong();
+                    i++;
+                    break;
+                default:
+                    throw new IOException("Unknown constant pool tag " + tag);
+            }
+        }
+        int accessFlags = in.readUnsignedShort();
+        String className = toClassName(utf8[classNames[in.readUnsignedShort()]]);
+
+        Set<String> references = new TreeSet<>();
+        for (int nameIndex : classNames) {
+            if (nameIndex > 0 && !utf8[nameIndex].startsWith("[")) {
+                addReference(references, utf8[nameIndex], prefix);
+            }
+        }
+        for (String value : utf8) {
+            if (value != null && value.indexOf(';') >= 0) {
+                Matcher matcher = DESCRIPTOR.matcher(value);
+                while (matcher.find()) {
+                    addReference(references, matcher.group(1), prefix);
+                }
+            }
+        }
+        references.remove(toTopLevelName(className));
+        boolean concrete = (accessFlags & (Modifier.ABSTRACT | Modifier.INTERFACE)) == 0;
+        return new ClassFileReferences(className, concrete, references);
+    }
+
+    private static void addReference(Set<String> references, String internalName, String prefix) {
+        String name = toTopLevelName(toClassName(internalName));
+        if (name.startsWith(prefix)) {
+            references.add(name);
+        }
+    }
+
+    private static String toClassName(String internalName) {
+        return internalName.replace('/', '.');
+    }
+
+    /**
+     * @return name of the top level class for nested class name, given name otherwise
+     */
+    static String toTopLevelName(String className) {
+        int dollar = className.indexOf('$');
+        return dollar < 0 ? className : className.substring(0, dollar);
+    }
+
+    /**
+     * @return binary name of the class, e.g. <code>org.jboss.hal.testsuite.page.BasePage$1</code>
+     */
+    String getClassName() {
+        return className;
+    }
+
+    /**
+     * @return false for abstract classes and interfaces
+     */
+    boolean isConcrete() {
+        return concrete;
+    }
+
+    /**
+     * @return top level classes referenced by the class, without the class itself
+     */
+    Set<String> getReferences() {
+        return references;
+    }
+}
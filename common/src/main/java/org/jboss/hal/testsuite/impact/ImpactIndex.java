@@ -0,0 +1,390 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+
+package org.jboss.hal.testsuite.impact;
+
+import org.apache.commons.io.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Static dependency index of the testsuite. For every compiled class it keeps the testsuite classes it references
+ * directly (see {@link ClassFileReferences}) and for every source file the DMR addresses it touches, so that for a
+ * test class all page objects, fragments, finder and creaper classes it reaches transitively and all addresses it
+ * works with can be computed, and vice versa for a changed class all test classes reaching it.
+ * <p/>
+ * Since javac inlines <code>static final</code> constants, references to constants-only classes (e.g.
+ * <code>FinderNames</code>) don't show in class files. So references are collected from the source as well: qualified
+ * names (including imports) and simple names followed by a dot resolved against the own package and wildcard imports.
+ * <p/>
+ * Addresses are collected from the source as address roots, e.g. <code>subsystem=undertow</code> or
+ * <code>profile=full-ha</code>, from <code>Address.subsystem(...)</code>, <code>Address.of(...)</code>,
+ * <code>Address.coreService(...)</code> and CLI like string literals. Address values which are not literals are
+ * recorded as <code>*</code>.
+ * <p/>
+ * The index is stored in a text file and updated incrementally, only class and source files whose timestamp or size
+ * has changed since the last update are read again.
+ */
+public final class ImpactIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ImpactIndex.class);
+
+    private static final String CLASS_ENTRY = "C";
+    private static final String SOURCE_ENTRY = "S";
+    private static final String SEPARATOR = "\t";
+
+    private static final Pattern SUBSYSTEM = Pattern.compile("subsystem\\(\\s*\"([\\w.-]+)\"\\s*\\)");
+    private static final Pattern CORE_SERVICE = Pattern.compile("coreService\\(\\s*\"([\\w.-]+)\"\\s*\\)");
+    private static final Pattern ADDRESS_OF = Pattern.compile("Address\\.of\\(\\s*\"([\\w.-]+)\"\\s*,\\s*(\"([^\"]*)\")?");
+    private static final Pattern CLI_ADDRESS = Pattern.compile("\"/?(subsystem|core-service|profile|server-group|host"
+            + "|socket-binding-group|interface|path|deployment|system-property|extension)=([\\w.*-]+)");
+    private static final Pattern PACKAGE = Pattern.compile("^\\s*package\\s+([\\w.]+)\\s*;", Pattern.MULTILINE);
+    private static final Pattern WILDCARD_IMPORT = Pattern.compile("^\\s*import\\s+(?:static\\s+)?([\\w.]+)\\.\\*\\s*;",
+            Pattern.MULTILINE);
+    private static final Pattern QUALIFIED_NAME = Pattern.compile("\\b((?:[a-z_]\\w*\\.)+[A-Z]\\w*)");
+    private static final Pattern SIMPLE_NAME = Pattern.compile("(?<![\\w.])([A-Z]\\w*)\\s*\\.");
+
+    private final Map<String, ClassEntry> classes = new HashMap<>();
+    private final Map<String, SourceEntry> sources = new HashMap<>();
+    private Map<String, Set<String>> references;
+    private Map<String, Set<String>> referencedBy;
+
+    /**
+     * Loads index stored by {@link #store(File)}, returns empty index if the file doesn't exist or can't be read.
+     */
+    public static ImpactIndex load(File file) {
+        ImpactIndex index = new ImpactIndex();
+        if (!file.isFile()) {
+            return index;
+        }
+        try {
+            for (String line : FileUtils.readLines(file, StandardCharsets.UTF_8)) {
+                String[] fields = line.split(SEPARATOR, -1);
+                if (fields[0].equals(CLASS_ENTRY) && fields.length == 6) {
+                    index.classes.put(fields[1], new ClassEntry(fields[2], fields[3], Boolean.parseBoolean(fields[4]),
+                            split(fields[5])));
+                } else if (fields[0].equals(SOURCE_ENTRY) && fields.length == 5) {
+                    index.sources.put(fields[1], new SourceEntry(fields[2], split(fields[3]), split(fields[4])));
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Unable to read impact index {}, it will be built from scratch", file, e);
+            index.classes.clear();
+            index.sources.clear();
+        }
+        return index;
+    }
+
+    public void store(File file) throws IOException {
+        List<String> lines = new ArrayList<>();
+        new TreeSet<>(classes.keySet()).forEach(name -> {
+            ClassEntry entry = classes.get(name);
+            lines.add(String.join(SEPARATOR, CLASS_ENTRY, name, entry.stamp, entry.topLevelName,
+                    String.valueOf(entry.test), String.join(",", entry.references)));
+        });
+        new TreeSet<>(sources.keySet()).forEach(name -> {
+            SourceEntry entry = sources.get(name);
+            lines.add(String.join(SEPARATOR, SOURCE_ENTRY, name, entry.stamp, String.join(",", entry.addresses),
+                    String.join(",", entry.references)));
+        });
+        FileUtils.writeLines(file, StandardCharsets.UTF_8.name(), lines);
+    }
+
+    /**
+     * Brings the index up to date with given class and source directories. Entries of files which no longer exist are
+     * removed.
+     *
+     * @param classDirectories  compiled classes, classes in <code>test-classes</code> directories are test class
+     *                          candidates
+     * @param sourceDirectories sources to collect DMR addresses and references to constants from
+     * @param prefix            only classes with this name prefix are indexed, e.g. <code>org.jboss.hal.testsuite.</code>
+     * @return number of files read again
+     */
+    public int update(Collection<File> classDirectories, Collection<File> sourceDirectories, String prefix)
+            throws IOException {
+        int updated = 0;
+        Set<String> seen = new HashSet<>();
+        for (File directory : classDirectories) {
+            if (!directory.isDirectory()) {
+                continue;
+            }
+            boolean testDirectory = directory.getName().equals("test-classes");
+            for (File file : FileUtils.listFiles(directory, new String[]{"class"}, true)) {
+                String name = toClassName(directory, file, ".class");
+                if (!name.startsWith(prefix) || !seen.add(name)) {
+                    continue;
+                }
+                String stamp = stamp(file);
+                ClassEntry entry = classes.get(name);
+                if (entry == null || !entry.stamp.equals(stamp)) {
+                    ClassFileReferences references = ClassFileReferences.read(file, prefix);
+                    String topLevelName = ClassFileReferences.toTopLevelName(name);
+                    boolean test = testDirectory && name.equals(topLevelName) && references.isConcrete()
+                            && isTestClassName(name);
+                    classes.put(name, new ClassEntry(stamp, topLevelName, test, references.getReferences()));
+                    updated++;
+                }
+            }
+        }
+        classes.keySet().retainAll(seen);
+
+        seen.clear();
+        for (File directory : sourceDirectories) {
+            if (!directory.isDirectory()) {
+                continue;
+            }
+            for (File file : FileUtils.listFiles(directory, new String[]{"java"}, true)) {
+                String name = toClassName(directory, file, ".java");
+                if (!name.startsWith(prefix) || !seen.add(name)) {
+                    continue;
+                }
+                String stamp = stamp(file);
+                SourceEntry entry = sources.get(name);
+                if (entry == null || !entry.stamp.equals(stamp)) {
+                    String source = FileUtils.readFileToString(file, StandardCharsets.UTF_8);
+                    sources.put(name, new SourceEntry(stamp, findAddresses(source), findReferences(source, prefix)));
+                    updated++;
+                }
+            }
+        }
+        sources.keySet().retainAll(seen);
+        references = null;
+        referencedBy = null;
+        return updated;
+    }
+
+    /**
+     * @return concrete top level classes from <code>test-classes</code> named as surefire runs them by default
+     */
+    public Set<String> getTestClasses() {
+        return classes.values().stream()
+                .filter(entry -> entry.test)
+                .map(entry -> entry.topLevelName)
+                .collect(Collectors.toCollection(TreeSet::new));
+    }
+
+    /**
+     * @return whether the given top level class is indexed
+     */
+    public boolean contains(String className) {
+        return classes.containsKey(className);
+    }
+
+    /**
+     * @return top level classes the given class reaches transitively, without the class itself
+     */
+    public Set<String> getReachedClasses(String className) {
+        Set<String> reached = traverse(Collections.singleton(className), getReferences());
+        reached.remove(className);
+        return reached;
+    }
+
+    /**
+     * @return address roots touched by the given class or any class it reaches
+     */
+    public Set<String> getAddresses(String className) {
+        Set<String> addresses = new TreeSet<>();
+        Set<String> reached = getReachedClasses(className);
+        reached.add(className);
+        for (String name : reached) {
+            SourceEntry entry = sources.get(name);
+            if (entry != null) {
+                addresses.addAll(entry.addresses);
+            }
+        }
+        return addresses;
+    }
+
+    /**
+     * @param changedClasses top level classes which have changed (including removed ones)
+     * @return test classes reaching any of the changed classes, including changed test classes themselves
+     */
+    public Set<String> selectAffected(Collection<String> changedClasses) {
+        Set<String> affected = traverse(changedClasses, getReferencedBy());
+        affected.retainAll(getTestClasses());
+        return affected;
+    }
+
+    /**
+     * @param addresses address roots, e.g. <code>subsystem=undertow</code>
+     * @return test classes touching any of given addresses, directly or via classes they reach
+     */
+    public Set<String> selectTouching(Collection<String> addresses) {
+        Set<String> touching = sources.entrySet().stream()
+                .filter(e -> e.getValue().addresses.stream().anyMatch(addresses::contains))
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toSet());
+        return selectAffected(touching);
+    }
+
+    private Map<String, Set<String>> getReferences() {
+        if (references == null) {
+            references = new HashMap<>();
+            classes.values().forEach(entry -> references.computeIfAbsent(entry.topLevelName, k -> new HashSet<>())
+                    .addAll(entry.references));
+            sources.forEach((name, entry) -> entry.references.stream()
+                    .filter(reference -> !reference.equals(name) && classes.containsKey(reference))
+                    .forEach(reference -> references.computeIfAbsent(name, k -> new HashSet<>()).add(reference)));
+        }
+        return references;
+    }
+
+    private Map<String, Set<String>> getReferencedBy() {
+        if (referencedBy == null) {
+            referencedBy = new HashMap<>();
+            getReferences().forEach((name, referenced) -> referenced.forEach(reference ->
+                    referencedBy.computeIfAbsent(reference, k -> new HashSet<>()).add(name)));
+        }
+        return referencedBy;
+    }
+
+    private static Set<String> traverse(Collection<String> start, Map<String, Set<String>> edges) {
+        Set<String> visited = new TreeSet<>(start);
+        Deque<String> queue = new ArrayDeque<>(start);
+        while (!queue.isEmpty()) {
+            for (String next : edges.getOrDefault(queue.poll(), Collections.emptySet())) {
+                if (visited.add(next)) {
+                    queue.add(next);
+                }
+            }
+        }
+        return visited;
+    }
+
+    static Set<String> findAddresses(String source) {
+        Set<String> addresses = new TreeSet<>();
+        Matcher matcher = SUBSYSTEM.matcher(source);
+        while (matcher.find()) {
+            addresses.add("subsystem=" + matcher.group(1));
+        }
+        matcher = CORE_SERVICE.matcher(source);
+        while (matcher.find()) {
+            addresses.add("core-service=" + matcher.group(1));
+        }
+        matcher = ADDRESS_OF.matcher(source);
+        while (matcher.find()) {
+            addresses.add(matcher.group(1) + "=" + (matcher.group(3) != null ? matcher.group(3) : "*"));
+        }
+        matcher = CLI_ADDRESS.matcher(source);
+        while (matcher.find()) {
+            addresses.add(matcher.group(1) + "=" + matcher.group(2));
+        }
+        return addresses;
+    }
+
+    /**
+     * @return candidates of top level classes with given prefix the source refers to, not all of them have to exist
+     */
+    static Set<String> findReferences(String source, String prefix) {
+        Set<String> found = new TreeSet<>();
+        Matcher matcher = QUALIFIED_NAME.matcher(source);
+        while (matcher.find()) {
+            if (matcher.group(1).startsWith(prefix)) {
+                found.add(matcher.group(1));
+            }
+        }
+        List<String> packages = new ArrayList<>();
+        matcher = PACKAGE.matcher(source);
+        if (matcher.find()) {
+            packages.add(matcher.group(1));
+        }
+        matcher = WILDCARD_IMPORT.matcher(source);
+        while (matcher.find()) {
+            packages.add(matcher.group(1));
+        }
+        matcher = SIMPLE_NAME.matcher(source);
+        while (matcher.find()) {
+            for (String packageName : packages) {
+                if (packageName.startsWith(prefix)) {
+                    found.add(packageName + "." + matcher.group(1));
+                }
+            }
+        }
+        return found;
+    }
+
+    static boolean isTestClassName(String className) {
+        String simpleName = className.substring(className.lastIndexOf('.') + 1);
+        return simpleName.startsWith("Test") || simpleName.endsWith("Test") || simpleName.endsWith("TestCase");
+    }
+
+    private static String toClassName(File directory, File file, String extension) {
+        String relative = directory.toURI().relativize(file.toURI()).getPath();
+        return relative.substring(0, relative.length() - extension.length()).replace('/', '.');
+    }
+
+    private static String stamp(File file) {
+        return file.lastModified() + ":" + file.length();
+    }
+
+    private static Set<String> split(String value) {
+        return value.isEmpty() ? new TreeSet<>() : new TreeSet<>(Arrays.asList(value.split(",")));
+    }
+
+    private static final class ClassEntry {
+
+        private final String stamp;
+        private final String topLevelName;
+        private final boolean test;
+        private final Set<String> references;
+
+        private ClassEntry(String stamp, String topLevelName, boolean test, Set<String> references) {
+            this.stamp = stamp;
+            this.topLevelName = topLevelName;
+            this.test = test;
+            this.references = references;
+        }
+    }
+
+    private static final class SourceEntry {
+
+        private final String stamp;
+        private final Set<String> addresses;
+        private final Set<String> references;
+
+        private SourceEntry(String stamp, Set<String> addresses, Set<String> references) {
+            this.stamp = stamp;
+            this.addresses = addresses;
+            this.references = references;
+        }
+    }
+}
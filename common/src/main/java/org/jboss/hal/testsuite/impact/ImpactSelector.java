@@ -0,0 +1,204 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+
+package org.jboss.hal.testsuite.impact;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Selects test classes affected by a change, e.g. to run only tests of the messaging pages after a change to
+ * <code>fragment/config/messaging</code>. Changed files are taken from <code>git diff</code> (including uncommitted and
+ * untracked files), every changed java file is mapped to its class and all test classes reaching it are selected (see
+ * {@link ImpactIndex}). Changes to anything else but java sources and documentation (pom, resources) select all test
+ * classes, since their impact can't be determined statically. So does a changed class which is not in the index (e.g.
+ * its module was not compiled), since nothing is known about the tests reaching it.
+ * <p/>
+ * Classes have to be compiled before, e.g. by <code>mvn test-compile -Pbasic,rbac,transactions</code>, the index is
+ * updated from them incrementally on every run.
+ * <p/>
+ * Usage (from the root of the project):
+ * <pre>
+ * mvn -pl common exec:java -Dexec.mainClass=org.jboss.hal.testsuite.impact.ImpactSelector -Dimpact.base=origin/master
+ * </pre>
+ * Supported properties:
+ * <ul>
+ *   <li><code>impact.base</code> - git revision to diff against, <code>HEAD</code> by default</li>
+ *   <li><code>impact.changes</code> - comma separated changed files, if set git is not used</li>
+ *   <li><code>impact.addresses</code> - comma separated address roots, e.g. <code>subsystem=undertow</code>, tests
+ *   touching them are selected too</li>
+ *   <li><code>impact.classes</code> - comma separated class directories, <code>target/classes</code> and
+ *   <code>target/test-classes</code> of all modules by default</li>
+ *   <li><code>impact.sources</code> - comma separated source directories, <code>src/main/java</code> and
+ *   <code>src/test/java</code> of all modules by default</li>
+ *   <li><code>impact.index</code> - index file, <code>target/impact-index.txt</code> by default</li>
+ *   <li><code>impact.report</code> - if true, page objects, fragments, finder and creaper command classes and addresses
+ *   reached by every selected test class are printed</li>
+ *   <li><code>impact.output</code> - file to write the <code>-Dtest</code> value to, nothing is written by default</li>
+ * </ul>
+ * Relative paths are resolved against the working directory (see <code>-Dexec.workingdir</code>).
+ */
+public final class ImpactSelector {
+
+    private static final String PREFIX = "org.jboss.hal.testsuite.";
+    private static final List<String> REPORTED_PACKAGES = Arrays.asList(PREFIX + "page.", PREFIX + "fragment.",
+            PREFIX + "finder.", PREFIX + "creaper.command.");
+    private static final Pattern JAVA_SOURCE = Pattern.compile(".*/src/(?:main|test)/java/(.+)\\.java");
+    private static final Pattern IGNORED = Pattern.compile(".*\\.(?:md|txt|adoc)|(?:.*/)?\\.git\\w*");
+    private static final List<String> MODULES = Arrays.asList("common", "basic", "rbac", "transactions");
+
+    private final ImpactIndex index;
+
+    public ImpactSelector(ImpactIndex index) {
+        this.index = index;
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        long start = System.currentTimeMillis();
+        File indexFile = new File(System.getProperty("impact.index", "target/impact-index.txt"));
+        ImpactIndex index = ImpactIndex.load(indexFile);
+        int updated = index.update(toFiles(System.getProperty("impact.classes",
+                inModules("target/classes", "target/test-classes"))),
+                toFiles(System.getProperty("impact.sources", inModules("src/main/java", "src/test/java"))), PREFIX);
+        if (updated > 0) {
+            index.store(indexFile);
+        }
+
+        String changes = System.getProperty("impact.changes");
+        List<String> changedFiles = changes != null ? split(changes)
+                : getChangedFiles(System.getProperty("impact.base", "HEAD"));
+
+        ImpactSelector selector = new ImpactSelector(index);
+        Set<String> selected = selector.select(changedFiles);
+        List<String> addresses = split(System.getProperty("impact.addresses", ""));
+        if (!addresses.isEmpty()) {
+            selected.addAll(index.selectTouching(addresses));
+        }
+
+        System.out.println(String.format("%d changed files, %d of %d test classes selected (%d index entries updated"
+                + ", %d ms)", changedFiles.size(), selected.size(), index.getTestClasses().size(), updated,
+                System.currentTimeMillis() - start));
+        if (Boolean.getBoolean("impact.report")) {
+            selected.forEach(testClass -> System.out.println(selector.describe(testClass)));
+        }
+        String testParameter = selected.stream().map(c -> c.replace('.', '/')).collect(Collectors.joining(","));
+        System.out.println("-Dtest=" + testParameter);
+        String output = System.getProperty("impact.output");
+        if (output != null) {
+            FileUtils.writeStringToFile(new File(output), testParameter, StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * @param changedFiles paths of changed files relative to the root of the project
+     * @return test classes affected by the change, all test classes if the impact of some file can't be determined or
+     * some changed class is not indexed
+     */
+    public Set<String> select(List<String> changedFiles) {
+        Set<String> changedClasses = new TreeSet<>();
+        for (String file : changedFiles) {
+            String path = "/" + file.replace('\\', '/');
+            Matcher matcher = JAVA_SOURCE.matcher(path);
+            if (matcher.matches()) {
+                changedClasses.add(matcher.group(1).replace('/', '.'));
+            } else if (!IGNORED.matcher(path).matches()) {
+                System.out.println("Impact of " + file + " can't be determined, selecting all test classes");
+                return index.getTestClasses();
+            }
+        }
+        for (String changedClass : changedClasses) {
+            if (!index.contains(changedClass)) {
+                System.out.println(changedClass + " is not indexed, selecting all test classes");
+                return index.getTestClasses();
+            }
+        }
+        return index.selectAffected(changedClasses);
+    }
+
+    /**
+     * @return test class with page objects, fragments, finder and creaper command classes and addresses it reaches
+     */
+    public String describe(String testClass) {
+        StringBuilder sb = new StringBuilder(testClass);
+        index.getReachedClasses(testClass).stream()
+                .filter(c -> REPORTED_PACKAGES.stream().anyMatch(c::startsWith))
+                .forEach(c -> sb.append(System.lineSeparator()).append("  ").append(c));
+        index.getAddresses(testClass)
+                .forEach(a -> sb.append(System.lineSeparator()).append("  ").append(a));
+        return sb.toString();
+    }
+
+    private static List<String> getChangedFiles(String base) throws IOException, InterruptedException {
+        Set<String> files = new TreeSet<>();
+        files.addAll(git("diff", "--name-only", base));
+        files.addAll(git("ls-files", "--others", "--exclude-standard"));
+        return new ArrayList<>(files);
+    }
+
+    private static List<String> git(String... args) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add("git");
+        command.addAll(Arrays.asList(args));
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        List<String> lines = IOUtils.readLines(process.getInputStream(), StandardCharsets.UTF_8);
+        if (process.waitFor() != 0) {
+            throw new IOException(String.join(" ", command) + " failed: " + String.join(System.lineSeparator(), lines));
+        }
+        return lines.stream().filter(line -> !line.trim().isEmpty()).collect(Collectors.toList());
+    }
+
+    /**
+     * @return comma separated given directories of all modules
+     */
+    private static String inModules(String... directories) {
+        return MODULES.stream()
+                .flatMap(module -> Arrays.stream(directories).map(directory -> module + "/" + directory))
+                .collect(Collectors.joining(","));
+    }
+
+    private static List<File> toFiles(String value) {
+        return split(value).stream().map(File::new).collect(Collectors.toList());
+    }
+
+    private static List<String> split(String value) {
+        List<String> values = new ArrayList<>();
+        for (String item : value.split(",")) {
+            if (!item.trim().isEmpty()) {
+                values.add(item.trim());
+            }
+        }
+        return values;
+    }
+}
@@ -2,7 +2,8 @@ package org.jboss.hal.testsuite.mbui;
 
 import org.jboss.arquillian.drone.api.annotation.Drone;
 import org.jboss.arquillian.graphene.findby.ByJQuery;
-import org.jboss.hal.testsuite.cli.Library;
+import org.jboss.hal.testsuite.util.ConsoleIdleDetector;
+import org.jboss.hal.testsuite.util.ConsoleWait;
 import org.openqa.selenium.By;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
@@ -27,8 +28,9 @@ public class MbuiNavigation {
         WebElement leftMenu = browser.findElement(By.className("split-west"));
         // (ByJQuery.selector("(tr td:contains(subsystem)).siblings(td:has(img))"));
         WebElement tree =  leftMenu.findElement(By.className("gwt-Tree"));
+        ConsoleIdleDetector.install(browser);
         tree.findElement(By.xpath("//tr[.//td/div[contains(text(),'" + label + "')]]/td/img")).click();
-        Library.letsSleep(1000);
+        ConsoleWait.at("MbuiNavigation.displayMBuiSubTree", browser, 1000).untilConsoleIdle();
     }
 
     public void selectItemInMBuiTree(String name) {
@@ -39,6 +41,6 @@ public class MbuiNavigation {
         WebElement table = browser.findElement(By.className("fill-layout-width"));
         String value = table.findElement(By.xpath("//tr[.//td/div/div[contains(text(), '" + label + "')]]/td/div/span")).getText();
         assertEquals("Value of " + label + "is differrent in CLI and deployment MBUI table.", expectedValue, value);
-        Library.letsSleep(1000);
+        ConsoleWait.at("MbuiNavigation.checkAndAssertMBuiValueOf", browser, 1000).untilConsoleIdle();
     }
 }
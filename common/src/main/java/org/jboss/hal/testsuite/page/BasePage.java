@@ -4,7 +4,6 @@ import org.jboss.arquillian.drone.api.annotation.Drone;
 import org.jboss.arquillian.graphene.Graphene;
 import org.jboss.arquillian.graphene.findby.ByJQuery;
 import org.jboss.arquillian.graphene.findby.FindByJQuery;
-import org.jboss.hal.testsuite.cli.Library;
 import org.jboss.hal.testsuite.fragment.ConfigFragment;
 import org.jboss.hal.testsuite.fragment.AlertFragment;
 import org.jboss.hal.testsuite.fragment.ConfigAreaFragment;
@@ -17,13 +16,19 @@ import org.jboss.hal.testsuite.fragment.shared.layout.Footer;
 import org.jboss.hal.testsuite.fragment.shared.layout.HeaderTabs;
 import org.jboss.hal.testsuite.fragment.shared.table.InfoTable;
 import org.jboss.hal.testsuite.fragment.shared.util.ResourceManager;
+import org.jboss.hal.testsuite.page.home.HomePage;
+import org.jboss.hal.testsuite.util.ConfigUtils;
 import org.jboss.hal.testsuite.util.Console;
+import org.jboss.hal.testsuite.util.ConsoleIdleDetector;
+import org.jboss.hal.testsuite.util.ConsoleWait;
 import org.jboss.hal.testsuite.util.PropUtils;
 import org.openqa.selenium.By;
 import org.openqa.selenium.NoSuchElementException;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.support.FindBy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.util.List;
 
@@ -32,6 +37,10 @@ import java.util.List;
  */
 public abstract class BasePage {
 
+    private static final Logger log = LoggerFactory.getLogger(BasePage.class);
+
+    private static final boolean HASH_NAVIGATION = "hash".equalsIgnoreCase(ConfigUtils.get("suite.navigation.mode", "refresh"));
+
     @Drone
     protected WebDriver browser;
 
@@ -294,12 +303,32 @@ public abstract class BasePage {
     }
 
     /**
-     * Navigates to page url
+     * Marks that the next {@link #navigate()} must reload the whole console even in hash navigation mode, e.g. after
+     * the server was reloaded.
+     */
+    public static void requireFullReload() {
+        Console.requireFullReload();
+    }
+
+    /**
+     * Navigates to page url. By default the whole console is reloaded. With <code>suite.navigation.mode=hash</code>
+     * only the place token is switched via <code>location.hash</code>, unless the console looks broken or a full
+     * reload was required by {@link #requireFullReload()}.
      */
     public void navigate() {
-        browser.navigate().refresh();
-        Graphene.goTo(this.getClass());
-        Console.withBrowser(browser).waitUntilLoaded();
+        long start = System.currentTimeMillis();
+        Console console = Console.withBrowser(browser);
+        if (HASH_NAVIGATION && console.isReusable()) {
+            String token = Console.toPlaceToken(getClass());
+            if (token.equals(console.getPlaceToken())) {
+                // setting the same token does not fire place change, go through home page to get fresh view
+                console.goToPlace(Console.toPlaceToken(HomePage.class));
+            }
+            console.goToPlace(token);
+        } else {
+            console.reload(getClass());
+        }
+        log.debug("Navigation to {} took {} ms", getClass().getSimpleName(), System.currentTimeMillis() - start);
     }
 
     /**
@@ -310,9 +339,10 @@ public abstract class BasePage {
     public BasePage selectMenu(String label) {
         String cellSelectedClass = PropUtils.get("table.cell.selected.class");
         By selector = getMenuEqualsSelector(label);
+        ConsoleIdleDetector.install(browser);
         getContentRoot().findElement(selector).click();
         Graphene.waitModel().until().element(selector).attribute("class").contains(cellSelectedClass);
-        Library.letsSleep(1000);
+        ConsoleWait.at("BasePage.selectMenu", browser, 1000).untilConsoleIdle();
         return this;
     }
 
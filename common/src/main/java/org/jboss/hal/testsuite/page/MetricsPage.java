@@ -1,7 +1,6 @@
 package org.jboss.hal.testsuite.page;
 
 import org.jboss.arquillian.graphene.Graphene;
-import org.jboss.hal.testsuite.cli.Library;
 import org.jboss.hal.testsuite.finder.Application;
 import org.jboss.hal.testsuite.finder.FinderNames;
 import org.jboss.hal.testsuite.finder.FinderNavigation;
@@ -9,6 +8,8 @@ import org.jboss.hal.testsuite.fragment.MetricsAreaFragment;
 import org.jboss.hal.testsuite.page.runtime.DomainRuntimeEntryPoint;
 import org.jboss.hal.testsuite.page.runtime.StandaloneRuntimeEntryPoint;
 import org.jboss.hal.testsuite.util.ConfigUtils;
+import org.jboss.hal.testsuite.util.ConsoleIdleDetector;
+import org.jboss.hal.testsuite.util.ConsoleWait;
 import org.jboss.hal.testsuite.util.PropUtils;
 import org.openqa.selenium.By;
 import org.openqa.selenium.NoSuchElementException;
@@ -51,8 +52,9 @@ public abstract class MetricsPage extends BasePage {
                 .stream().filter(p -> p.isDisplayed()).findFirst().get();
 
         WebElement refreshLink = viewPanel.findElement(By.className("html-link"));
+        ConsoleIdleDetector.install(browser);
         refreshLink.click();
-        Library.letsSleep(500);
+        ConsoleWait.at("MetricsPage.refreshStats", browser, 500).untilConsoleIdle();
     }
 
     /**
@@ -26,9 +26,8 @@ public class HomePage extends BasePage implements Navigatable {
         MODULE_COLUMN_CLASS = PropUtils.get("homepage.module.column.class");
 
     public void navigate() {
-        browser.navigate().refresh();
-        Graphene.goTo(HomePage.class);
-        Console.withBrowser(browser).waitUntilLoaded().maximizeWindow();
+        super.navigate();
+        Console.withBrowser(browser).maximizeWindow();
     }
 
     /**
@@ -0,0 +1,234 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+
+package org.jboss.hal.testsuite.quarantine;
+
+import org.jboss.hal.testsuite.util.ConfigUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Pass/fail history of test methods and flakiness score computed from it. Stored in <code>suite.flaky.history</code>
+ * file (<code>~/.hal-testsuite/flaky-history.properties</code> by default) so that it survives <code>mvn clean</code>,
+ * every method keyed by <code>class#method</code> with outcomes of its last <code>suite.flaky.window</code> runs.
+ * <p/>
+ * Flakiness score is the share of recorded runs which either needed a rerun to pass or whose outcome differs from the
+ * previous run. A method with at least <code>suite.flaky.min.runs</code> recorded runs and score of at least
+ * <code>suite.flaky.threshold</code> is quarantined.
+ * <p/>
+ * Forks record outcomes to the same file, every store appends outcomes recorded since the last one to what is stored
+ * at the moment, under a file lock.
+ */
+public final class FlakinessHistory {
+
+    private static final Logger log = LoggerFactory.getLogger(FlakinessHistory.class);
+
+    private static final File FILE = new File(ConfigUtils.get("suite.flaky.history",
+            new File(System.getProperty("user.home"), ".hal-testsuite/flaky-history.properties").getPath()));
+    private static final int WINDOW = Integer.parseInt(ConfigUtils.get("suite.flaky.window", "20"));
+    private static final int MIN_RUNS = Integer.parseInt(ConfigUtils.get("suite.flaky.min.runs", "3"));
+    private static final double THRESHOLD = Double.parseDouble(ConfigUtils.get("suite.flaky.threshold", "0.3"));
+    private static final FlakinessHistory INSTANCE = new FlakinessHistory();
+
+    private Properties history;
+    /**
+     * Outcomes recorded since the last successful store.
+     */
+    private final Map<String, String> pending = new LinkedHashMap<>();
+
+    private FlakinessHistory() {
+    }
+
+    public static FlakinessHistory getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Outcome of a single test method run.
+     */
+    public enum Outcome {
+        PASSED('P'), FAILED('F'), PASSED_ON_RERUN('R');
+
+        private final char code;
+
+        Outcome(char code) {
+            this.code = code;
+        }
+    }
+
+    /**
+     * @param testMethod method in <code>class#method</code> form, see {@link #key(Class, String)}
+     */
+    public synchronized void record(String testMethod, Outcome outcome) {
+        getHistory().setProperty(testMethod, window(getHistory().getProperty(testMethod, "") + outcome.code));
+        pending.put(testMethod, pending.getOrDefault(testMethod, "") + outcome.code);
+        store();
+    }
+
+    /**
+     * @return flakiness score of the method between 0 (stable) and 1, 0 for a method without history
+     */
+    public synchronized double getScore(String testMethod) {
+        return score(getHistory().getProperty(testMethod, ""));
+    }
+
+    public synchronized boolean isQuarantined(String testMethod) {
+        String outcomes = getHistory().getProperty(testMethod, "");
+        return outcomes.length() >= MIN_RUNS && score(outcomes) >= THRESHOLD;
+    }
+
+    /**
+     * @return all quarantined methods in <code>class#method</code> form
+     */
+    public synchronized Set<String> getQuarantined() {
+        Set<String> quarantined = new TreeSet<>();
+        for (String testMethod : getHistory().stringPropertyNames()) {
+            if (isQuarantined(testMethod)) {
+                quarantined.add(testMethod);
+            }
+        }
+        return quarantined;
+    }
+
+    /**
+     * Estimates probability that at least one method of given class fails at first attempt, from failure rates of its
+     * methods. The estimate is smoothed by the number of recorded runs, so that classes with short history are
+     * neither considered safe nor broken.
+     *
+     * @param testClass fully qualified name of the test class
+     * @return probability between 0 and 1, 0.5 for a class without history
+     */
+    public synchronized double getFailureProbability(String testClass) {
+        String prefix = testClass + "#";
+        double passProbability = 1;
+        int runs = Integer.MAX_VALUE;
+        for (String testMethod : getHistory().stringPropertyNames()) {
+            if (testMethod.startsWith(prefix)) {
+                String outcomes = getHistory().getProperty(testMethod);
+                int failures = 0;
+                for (char outcome : outcomes.toCharArray()) {
+                    if (outcome != Outcome.PASSED.code) {
+                        failures++;
+                    }
+                }
+                passProbability *= 1 - (double) failures / outcomes.length();
+                runs = Math.min(runs, outcomes.length());
+            }
+        }
+        if (runs == Integer.MAX_VALUE) {
+            return 0.5;
+        }
+        return ((1 - passProbability) * runs + 0.5) / (runs + 1);
+    }
+
+    public static String key(Class<?> testClass, String methodName) {
+        return testClass.getName() + "#" + methodName;
+    }
+
+    private static double score(String outcomes) {
+        if (outcomes.isEmpty()) {
+            return 0;
+        }
+        int unstable = 0;
+        for (int i = 0; i < outcomes.length(); i++) {
+            char outcome = outcomes.charAt(i);
+            if (outcome == Outcome.PASSED_ON_RERUN.code || (i > 0 && isFailed(outcome) != isFailed(outcomes.charAt(i - 1)))) {
+                unstable++;
+            }
+        }
+        return (double) unstable / outcomes.length();
+    }
+
+    private static String window(String outcomes) {
+        return outcomes.length() > WINDOW ? outcomes.substring(outcomes.length() - WINDOW) : outcomes;
+    }
+
+    private static boolean isFailed(char outcome) {
+        return outcome == Outcome.FAILED.code;
+    }
+
+    private Properties getHistory() {
+        if (history == null) {
+            history = load();
+        }
+        return history;
+    }
+
+    private static Properties load() {
+        Properties properties = new Properties();
+        if (FILE.isFile()) {
+            try (InputStream in = new FileInputStream(FILE)) {
+                properties.load(in);
+            } catch (IOException e) {
+                log.warn("Unable to read flakiness history from " + FILE, e);
+            }
+        }
+        return properties;
+    }
+
+    /**
+     * Appends pending outcomes to the stored history (other forks may have stored theirs in the meantime) and replaces
+     * the file atomically. Pending outcomes are kept for the next attempt if the store fails.
+     */
+    private void store() {
+        File directory = FILE.getAbsoluteFile().getParentFile();
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            log.warn("Unable to create directory for flakiness history {}", FILE);
+            return;
+        }
+        File lockFile = new File(directory, FILE.getName() + ".lock");
+        try (FileChannel channel = FileChannel.open(lockFile.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE); FileLock lock = channel.lock()) {
+            Properties merged = load();
+            pending.forEach((testMethod, outcomes) ->
+                    merged.setProperty(testMethod, window(merged.getProperty(testMethod, "") + outcomes)));
+            File temp = File.createTempFile(FILE.getName(), ".tmp", directory);
+            try (OutputStream out = new FileOutputStream(temp)) {
+                merged.store(out, "Outcomes of test methods, P - passed, F - failed, R - passed on rerun");
+            }
+            Files.move(temp.toPath(), FILE.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            pending.clear();
+            history = merged;
+        } catch (IOException e) {
+            log.warn("Unable to store flakiness history to " + FILE, e);
+        }
+    }
+}
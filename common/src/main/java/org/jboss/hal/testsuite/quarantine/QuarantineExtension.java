@@ -0,0 +1,66 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+
+package org.jboss.hal.testsuite.quarantine;
+
+import org.jboss.arquillian.core.api.annotation.Observes;
+import org.jboss.arquillian.core.spi.LoadableExtension;
+import org.jboss.arquillian.test.spi.event.suite.Before;
+import org.jboss.hal.testsuite.util.ConfigUtils;
+import org.junit.Assume;
+
+/**
+ * Arquillian extension splitting test methods into the blocking group and the non-blocking quarantine group according
+ * to {@link FlakinessHistory}. Controlled by <code>suite.flaky.quarantine</code>:
+ * <ul>
+ *   <li><code>off</code> (default) - all methods run</li>
+ *   <li><code>skip</code> - quarantined methods are skipped, for the blocking run</li>
+ *   <li><code>only</code> - only quarantined methods run, for the non-blocking run</li>
+ * </ul>
+ * Skipped methods are reported as assumption failures. Applies to tests run by Arquillian.
+ */
+public class QuarantineExtension implements LoadableExtension {
+
+    private static final String MODE = ConfigUtils.get("suite.flaky.quarantine", "off");
+
+    @Override
+    public void register(ExtensionBuilder builder) {
+        if (!MODE.equals("off")) {
+            builder.observer(QuarantineObserver.class);
+        }
+    }
+
+    public static class QuarantineObserver {
+
+        public void skipByQuarantine(@Observes(precedence = 100) Before event) {
+            String testMethod = FlakinessHistory.key(event.getTestClass().getJavaClass(), event.getTestMethod().getName());
+            boolean quarantined = FlakinessHistory.getInstance().isQuarantined(testMethod);
+            if (MODE.equals("only")) {
+                Assume.assumeTrue(testMethod + " is not quarantined", quarantined);
+            } else {
+                Assume.assumeTrue(testMethod + " is quarantined as flaky (score "
+                        + FlakinessHistory.getInstance().getScore(testMethod) + ")", !quarantined);
+            }
+        }
+    }
+}
@@ -0,0 +1,200 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+
+package org.jboss.hal.testsuite.scheduling;
+
+import org.jboss.hal.testsuite.quarantine.FlakinessHistory;
+import org.jboss.hal.testsuite.quarantine.FlakinessHistory.Outcome;
+import org.jboss.hal.testsuite.sharding.ShardPlanner;
+import org.jboss.hal.testsuite.sharding.SurefireReports;
+import org.jboss.hal.testsuite.util.ConfigUtils;
+import org.junit.runner.Description;
+import org.junit.runner.Runner;
+import org.junit.runner.notification.Failure;
+import org.junit.runner.notification.RunListener;
+import org.junit.runner.notification.RunNotifier;
+import org.junit.runners.Suite;
+import org.junit.runners.model.InitializationError;
+import org.junit.runners.model.RunnerBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Suite running all test classes found next to the annotated class so that a broken console build is discovered as
+ * soon as possible. Smoke tier runs first, i.e. classes from <code>suite.failfast.smoke</code> packages (navigation
+ * to every page and the home page tests by default). If any of them fails, the rest of the classes is skipped.
+ * Otherwise the rest runs ordered by historical failure probability divided by duration, so that classes likely to
+ * fail and short run before long stable ones.
+ * <p/>
+ * Failure probability comes from {@link FlakinessHistory}, to which this suite records outcome of every test method.
+ * Duration comes from surefire reports of the previous run in <code>suite.failfast.reports</code>
+ * (<code>target/surefire-reports</code> by default), classes without history are estimated as in
+ * {@link ShardPlanner}.
+ * <p/>
+ * Usage:
+ * <pre>
+ * &#64;RunWith(FailFastSuite.class)
+ * public class FailFastTestSuite {
+ * }
+ * </pre>
+ */
+public class FailFastSuite extends Suite {
+
+    private static final Logger log = LoggerFactory.getLogger(FailFastSuite.class);
+
+    private static final List<String> SMOKE_PACKAGES = Arrays.stream(ConfigUtils.get("suite.failfast.smoke",
+            "org.jboss.hal.testsuite.test.smoke,org.jboss.hal.testsuite.test.homepage").split(","))
+            .map(String::trim)
+            .filter(p -> !p.isEmpty())
+            .collect(Collectors.toList());
+    private static final String REPORTS = ConfigUtils.get("suite.failfast.reports", "target/surefire-reports");
+
+    private final Set<Class<?>> smokeTier;
+    private boolean smokeFailed;
+
+    public FailFastSuite(Class<?> klass, RunnerBuilder builder) throws InitializationError {
+        this(klass, builder, TestClasses.find(klass));
+    }
+
+    private FailFastSuite(Class<?> klass, RunnerBuilder builder, List<Class<?>> testClasses)
+            throws InitializationError {
+        this(klass, builder, testClasses, testClasses.stream().filter(FailFastSuite::isSmoke).collect(Collectors.toSet()));
+    }
+
+    private FailFastSuite(Class<?> klass, RunnerBuilder builder, List<Class<?>> testClasses, Set<Class<?>> smokeTier)
+            throws InitializationError {
+        super(klass, builder.runners(klass, schedule(testClasses, smokeTier, readReports())));
+        this.smokeTier = smokeTier;
+        log.info("Running {} test classes, {} of them in smoke tier", testClasses.size(), smokeTier.size());
+    }
+
+    @Override
+    public void run(RunNotifier notifier) {
+        OutcomeRecorder recorder = new OutcomeRecorder();
+        notifier.addListener(recorder);
+        try {
+            super.run(notifier);
+        } finally {
+            notifier.removeListener(recorder);
+        }
+    }
+
+    @Override
+    protected void runChild(Runner runner, RunNotifier notifier) {
+        Description description = runner.getDescription();
+        boolean smoke = smokeTier.contains(description.getTestClass());
+        if (smokeFailed && !smoke) {
+            notifier.fireTestIgnored(description);
+            return;
+        }
+        SmokeFailureDetector detector = new SmokeFailureDetector();
+        if (smoke) {
+            notifier.addListener(detector);
+        }
+        try {
+            super.runChild(runner, notifier);
+        } finally {
+            notifier.removeListener(detector);
+        }
+        if (detector.failed && !smokeFailed) {
+            smokeFailed = true;
+            log.error("Smoke test class {} failed, skipping the rest of the test classes", description.getDisplayName());
+        }
+    }
+
+    /**
+     * @return smoke tier in alphabetical order followed by the rest ordered by failure probability / duration
+     */
+    static List<Class<?>> schedule(List<Class<?>> testClasses, Set<Class<?>> smokeTier, SurefireReports reports) {
+        ShardPlanner durations = new ShardPlanner(reports, 0);
+        Map<Class<?>, Double> priorities = new HashMap<>();
+        for (Class<?> testClass : testClasses) {
+            double duration = Math.max(durations.estimateDuration(testClass.getName()), 1);
+            priorities.put(testClass, FlakinessHistory.getInstance().getFailureProbability(testClass.getName())
+                    / duration);
+        }
+        List<Class<?>> scheduled = new ArrayList<>(testClasses);
+        scheduled.sort(Comparator.comparing((Class<?> c) -> !smokeTier.contains(c))
+                .thenComparing(c -> smokeTier.contains(c) ? 0.0 : -priorities.get(c))
+                .thenComparing(Class::getName));
+        return scheduled;
+    }
+
+    private static SurefireReports readReports() {
+        SurefireReports reports = new SurefireReports();
+        try {
+            reports.readDirectory(new File(REPORTS));
+        } catch (IOException e) {
+            log.warn("Unable to read surefire reports from " + REPORTS, e);
+        }
+        return reports;
+    }
+
+    private static boolean isSmoke(Class<?> testClass) {
+        String packageName = testClass.getPackage().getName();
+        return SMOKE_PACKAGES.stream().anyMatch(p -> packageName.equals(p) || packageName.startsWith(p + "."));
+    }
+
+    private static final class SmokeFailureDetector extends RunListener {
+
+        private boolean failed;
+
+        @Override
+        public void testFailure(Failure failure) {
+            failed = true;
+        }
+    }
+
+    /**
+     * Records outcome of every test method to {@link FlakinessHistory}.
+     */
+    private static final class OutcomeRecorder extends RunListener {
+
+        private final Set<Description> failed = new HashSet<>();
+
+        @Override
+        public void testFailure(Failure failure) {
+            failed.add(failure.getDescription());
+        }
+
+        @Override
+        public void testFinished(Description description) {
+            if (description.getTestClass() != null && description.getMethodName() != null) {
+                FlakinessHistory.getInstance().record(FlakinessHistory.key(description.getTestClass(),
+                        description.getMethodName()), failed.contains(description) ? Outcome.FAILED : Outcome.PASSED);
+            }
+        }
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.hal.testsuite.scheduling;
+
+import org.jboss.hal.testsuite.creaper.ManagementClientProvider;
+import org.junit.runner.Result;
+import org.junit.runner.Runner;
+import org.junit.runner.notification.RunNotifier;
+import org.junit.runners.Suite;
+import org.junit.runners.model.InitializationError;
+import org.junit.runners.model.RunnerBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wildfly.extras.creaper.core.online.OnlineManagementClient;
+import org.wildfly.extras.creaper.core.online.operations.admin.Administration;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+/**
+ * Suite running all test classes found next to the annotated class (in the same <code>test-classes</code> directory)
+ * in an order which minimizes server reloads. Classes which left the server in reload-required state or reloaded it
+ * themselves last time (see {@link ReloadHistory}) form the reload group, which runs back to back at the end, so that
+ * classes outside of the group never run against a reload-required server. The server is reloaded once, when the group
+ * has finished (and at the start, if a previous run was interrupted).
+ * <p/>
+ * The trade-off is within the group: the second and following classes of the group may run against a server which is
+ * already reload-required, i.e. changes of earlier classes needing reload are not applied yet. Classes reloading the
+ * server themselves (e.g. <code>Administration.reloadIfRequired()</code> in <code>&#64;AfterClass</code>) run last
+ * within the group, so that their reload also clears the state left by the earlier ones. They still reload on their
+ * own, dropping such a reload from a test class leaves it to the single reload of the suite.
+ * <p/>
+ * To keep per test case {@link org.junit.runner.notification.RunListener}s (like
+ * {@link org.jboss.hal.testsuite.testlistener.ServerStateLogger}) working, test run started and finished events are
+ * fired around every class.
+ * <p/>
+ * Usage:
+ * <pre>
+ * &#64;RunWith(ReloadAwareSuite.class)
+ * public class ReloadAwareTestSuite {
+ * }
+ * </pre>
+ */
+public class ReloadAwareSuite extends Suite {
+
+    private static final Logger log = LoggerFactory.getLogger(ReloadAwareSuite.class);
+
+    public ReloadAwareSuite(Class<?> klass, RunnerBuilder builder) throws InitializationError {
+        this(klass, builder, TestClasses.find(klass));
+    }
+
+    private ReloadAwareSuite(Class<?> klass, RunnerBuilder builder, List<Class<?>> testClasses)
+            throws InitializationError {
+        this(klass, builder, testClasses, testClasses.stream()
+                .filter(c -> ReloadHistory.getInstance().isLeavingReloadRequired(c.getCanonicalName()))
+                .collect(Collectors.toSet()), testClasses.stream()
+                .filter(c -> ReloadHistory.getInstance().isReloading(c.getCanonicalName()))
+                .collect(Collectors.toSet()));
+    }
+
+    private ReloadAwareSuite(Class<?> klass, RunnerBuilder builder, List<Class<?>> testClasses,
+                             Set<Class<?>> leavingReloadRequired, Set<Class<?>> reloading) throws InitializationError {
+        super(klass, builder.runners(klass, schedule(testClasses, leavingReloadRequired, reloading)));
+        log.info("Running {} test classes, {} of them leaving server reload-required and {} reloading it grouped at "
+                + "the end", testClasses.size(), leavingReloadRequired.size(), reloading.size());
+    }
+
+    @Override
+    public void run(RunNotifier notifier) {
+        reloadIfRequired("left by previous run");
+        try {
+            super.run(notifier);
+        } finally {
+            reloadIfRequired("left by reload group");
+        }
+    }
+
+    @Override
+    protected void runChild(Runner runner, RunNotifier notifier) {
+        notifier.fireTestRunStarted(runner.getDescription());
+        super.runChild(runner, notifier);
+        notifier.fireTestRunFinished(new Result());
+    }
+
+    /**
+     * @return test classes in alphabetical order, those leaving the server reload-required moved to the end followed
+     * by those reloading it themselves
+     */
+    static List<Class<?>> schedule(List<Class<?>> testClasses, Set<Class<?>> leavingReloadRequired,
+                                   Set<Class<?>> reloading) {
+        List<Class<?>> scheduled = new ArrayList<>(testClasses);
+        scheduled.sort(Comparator.comparing((Class<?> c) -> reloading.contains(c) ? 2
+                : leavingReloadRequired.contains(c) ? 1 : 0).thenComparing(Class::getName));
+        return scheduled;
+    }
+
+    private static void reloadIfRequired(String reason) {
+        try (OnlineManagementClient client = ManagementClientProvider.leaseOnlineManagementClient()) {
+            if (new Administration(client).reloadIfRequired()) {
+                log.info("Server reload-required state {} reloaded", reason);
+            }
+        } catch (IOException | InterruptedException | TimeoutException e) {
+            log.warn("Unable to reload server reload-required state " + reason, e);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.hal.testsuite.scheduling;
+
+import org.jboss.hal.testsuite.util.ConfigUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Properties;
+
+/**
+ * Remembers which test classes left the server in reload-required state or reloaded it themselves (typically in
+ * <code>&#64;AfterClass</code>) when they ran last time, as detected by
+ * {@link org.jboss.hal.testsuite.testlistener.ServerStateLogger}. Stored in <code>suite.reload.history</code> file
+ * (<code>~/.hal-testsuite/reload-history.properties</code> by default) so that it survives <code>mvn clean</code>.
+ */
+public final class ReloadHistory {
+
+    private static final Logger log = LoggerFactory.getLogger(ReloadHistory.class);
+
+    private static final String RELOADED = "reloaded";
+
+    private static final File FILE = new File(ConfigUtils.get("suite.reload.history",
+            new File(System.getProperty("user.home"), ".hal-testsuite/reload-history.properties").getPath()));
+    private static final ReloadHistory INSTANCE = new ReloadHistory();
+
+    private ReloadHistory() {
+    }
+
+    public static ReloadHistory getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * @param testCase canonical name of the test class
+     * @return true if the test class left the server in reload-required state when it ran last time
+     */
+    public synchronized boolean isLeavingReloadRequired(String testCase) {
+        return Boolean.parseBoolean(load().getProperty(testCase));
+    }
+
+    /**
+     * @param testCase canonical name of the test class
+     * @return true if the test class reloaded (or restarted) the server itself when it ran last time
+     */
+    public synchronized boolean isReloading(String testCase) {
+        return RELOADED.equals(load().getProperty(testCase));
+    }
+
+    /**
+     * Records whether the test class has left the server in reload-required state or reloaded it itself.
+     *
+     * @param testCase       canonical name of the test class
+     * @param reloadRequired whether the server is reload-required after the test class
+     * @param reloaded       whether the server was reloaded or restarted while the test class ran
+     */
+    public synchronized void record(String testCase, boolean reloadRequired, boolean reloaded) {
+        Properties history = load();
+        String value = reloadRequired ? "true" : reloaded ? RELOADED : "false";
+        if (value.equals(history.getProperty(testCase))) {
+            return;
+        }
+        history.setProperty(testCase, value);
+        File directory = FILE.getAbsoluteFile().getParentFile();
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            log.warn("Unable to create directory for reload history {}", FILE);
+            return;
+        }
+        try (OutputStream out = new FileOutputStream(FILE)) {
+            history.store(out, "Test classes leaving the server reload-required");
+        } catch (IOException e) {
+            log.warn("Unable to store reload history to " + FILE, e);
+        }
+    }
+
+    private Properties load() {
+        Properties history = new Properties();
+        if (FILE.isFile()) {
+            try (InputStream in = new FileInputStream(FILE)) {
+                history.load(in);
+            } catch (IOException e) {
+                log.warn("Unable to read reload history from " + FILE, e);
+            }
+        }
+        return history;
+    }
+}
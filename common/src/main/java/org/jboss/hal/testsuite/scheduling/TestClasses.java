@@ -0,0 +1,76 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+
+package org.jboss.hal.testsuite.scheduling;
+
+import org.jboss.hal.testsuite.util.ClassScanner;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.model.InitializationError;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Finds test classes for suites scheduling the whole module.
+ */
+final class TestClasses {
+
+    private TestClasses() {
+    }
+
+    /**
+     * Finds classes surefire runs by default, i.e. <code>Test*</code>, <code>*Test</code> and <code>*TestCase</code>
+     * which are not abstract and have test methods, in the module of the suite class.
+     */
+    static List<Class<?>> find(Class<?> suiteClass) throws InitializationError {
+        List<Class<?>> classes = new ArrayList<>();
+        try {
+            for (String className : ClassScanner.findClassNames(suiteClass)) {
+                String simpleName = className.substring(className.lastIndexOf('.') + 1);
+                if (!(simpleName.startsWith("Test") || simpleName.endsWith("Test") || simpleName.endsWith("TestCase"))) {
+                    continue;
+                }
+                Class<?> testClass = Class.forName(className, false, suiteClass.getClassLoader());
+                if (testClass != suiteClass && isRunnable(testClass)) {
+                    classes.add(testClass);
+                }
+            }
+        } catch (IOException | ClassNotFoundException e) {
+            throw new InitializationError(e);
+        }
+        return classes;
+    }
+
+    private static boolean isRunnable(Class<?> testClass) {
+        if (Modifier.isAbstract(testClass.getModifiers()) || testClass.isInterface()) {
+            return false;
+        }
+        return testClass.isAnnotationPresent(RunWith.class) || Arrays.stream(testClass.getMethods())
+                .anyMatch((Method method) -> method.isAnnotationPresent(Test.class));
+    }
+}
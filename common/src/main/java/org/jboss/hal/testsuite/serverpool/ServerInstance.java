@@ -0,0 +1,207 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.hal.testsuite.serverpool;
+
+import org.apache.commons.io.FileUtils;
+import org.jboss.hal.testsuite.util.Library;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wildfly.extras.creaper.core.ManagementClient;
+import org.wildfly.extras.creaper.core.online.ModelNodeResult;
+import org.wildfly.extras.creaper.core.online.OnlineManagementClient;
+import org.wildfly.extras.creaper.core.online.OnlineOptions;
+import org.wildfly.extras.creaper.core.online.operations.Address;
+import org.wildfly.extras.creaper.core.online.operations.Operations;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Standalone server started from <code>jboss.dist</code> with its own base directory and port offset. The base
+ * directory is created as a copy of the distribution's <code>standalone</code> directory (without data, logs and
+ * temporary files), which serves as the pristine configuration the instance can be recycled from.
+ */
+public class ServerInstance {
+
+    private static final Logger log = LoggerFactory.getLogger(ServerInstance.class);
+
+    private static final long POLL_INTERVAL = 500;
+    private static final String[] TRANSIENT_DIRS = {"data", "log", "tmp"};
+
+    private final File home;
+    private final File baseDir;
+    private final String serverConfig;
+    private final String managementAddress;
+    private final int portOffset;
+    private final int managementPort;
+    private final long startupTimeout;
+    private Process process;
+
+    /**
+     * @param home              server distribution
+     * @param baseDir           base directory of this instance, will be overwritten
+     * @param serverConfig      server configuration file, e.g. <code>standalone-full-ha.xml</code>
+     * @param managementAddress management interface address
+     * @param managementPort    management port of the distribution, without offset
+     * @param portOffset        port offset of this instance
+     * @param startupTimeout    max time in ms to wait for the instance to get running
+     */
+    public ServerInstance(File home, File baseDir, String serverConfig, String managementAddress, int managementPort,
+                          int portOffset, long startupTimeout) {
+        this.home = home;
+        this.baseDir = baseDir;
+        this.serverConfig = serverConfig;
+        this.managementAddress = managementAddress;
+        this.managementPort = managementPort + portOffset;
+        this.portOffset = portOffset;
+        this.startupTimeout = startupTimeout;
+    }
+
+    /**
+     * @return management port including the offset
+     */
+    public int getManagementPort() {
+        return managementPort;
+    }
+
+    public int getPortOffset() {
+        return portOffset;
+    }
+
+    public boolean isRunning() {
+        return process != null && process.isAlive();
+    }
+
+    /**
+     * Creates the base directory from pristine configuration and starts the server.
+     */
+    public void start() throws IOException, InterruptedException, TimeoutException {
+        if (isRunning()) {
+            return;
+        }
+        createBaseDir();
+        List<String> command = new ArrayList<>();
+        boolean windows = System.getProperty("os.name").toLowerCase().contains("win");
+        command.add(new File(home, "bin/standalone." + (windows ? "bat" : "sh")).getAbsolutePath());
+        command.add("-c");
+        command.add(serverConfig);
+        command.add("-Djboss.server.base.dir=" + baseDir.getAbsolutePath());
+        command.add("-Djboss.socket.binding.port-offset=" + portOffset);
+        command.add("-Djboss.bind.address.management=" + managementAddress);
+        log.info("Starting server instance with port offset {} in {}", portOffset, baseDir);
+        ProcessBuilder builder = new ProcessBuilder(command)
+                .directory(baseDir)
+                .redirectErrorStream(true)
+                .redirectOutput(new File(baseDir, "console.log"));
+        builder.environment().put("JBOSS_HOME", home.getAbsolutePath());
+        builder.environment().put("NOPAUSE", "true");
+        process = builder.start();
+        waitUntilRunning();
+    }
+
+    /**
+     * Shuts the server down, kills it if it doesn't stop in time.
+     */
+    public void stop() throws InterruptedException {
+        if (!isRunning()) {
+            return;
+        }
+        log.info("Stopping server instance with port offset {}", portOffset);
+        try (OnlineManagementClient client = createClient()) {
+            new Operations(client).invoke("shutdown", Address.root());
+        } catch (IOException | RuntimeException e) {
+            log.debug("Unable to shut server instance down gracefully", e);
+        }
+        if (!process.waitFor(60, TimeUnit.SECONDS)) {
+            log.warn("Server instance with port offset {} did not stop in time, killing it", portOffset);
+            process.destroyForcibly().waitFor(10, TimeUnit.SECONDS);
+        }
+        process = null;
+    }
+
+    /**
+     * Stops the server, throws its configuration away and starts it again from pristine configuration.
+     */
+    public void recycle() throws IOException, InterruptedException, TimeoutException {
+        log.info("Recycling server instance with port offset {}", portOffset);
+        stop();
+        start();
+    }
+
+    private void createBaseDir() throws IOException {
+        File pristine = new File(home, "standalone");
+        if (baseDir.exists()) {
+            FileUtils.deleteDirectory(baseDir);
+        }
+        FileUtils.copyDirectory(pristine, baseDir, file -> {
+            for (String transientDir : TRANSIENT_DIRS) {
+                if (file.equals(new File(pristine, transientDir))) {
+                    return false;
+                }
+            }
+            return true;
+        });
+    }
+
+    private void waitUntilRunning() throws InterruptedException, TimeoutException {
+        long start = System.currentTimeMillis();
+        while (System.currentTimeMillis() - start < startupTimeout) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("Server instance with port offset " + portOffset
+                        + " exited with code " + process.exitValue() + ", see " + new File(baseDir, "console.log"));
+            }
+            if (isServerStateRunning()) {
+                log.info("Server instance with port offset {} started in {} ms", portOffset,
+                        System.currentTimeMillis() - start);
+                return;
+            }
+            Library.letsSleep(POLL_INTERVAL);
+        }
+        throw new TimeoutException("Server instance with port offset " + portOffset + " did not start within "
+                + startupTimeout + " ms");
+    }
+
+    private boolean isServerStateRunning() {
+        try (OnlineManagementClient client = createClient()) {
+            ModelNodeResult result = new Operations(client).readAttribute(Address.root(), "server-state");
+            return result.isSuccess() && "running".equals(result.stringValue());
+        } catch (IOException | RuntimeException e) {
+            return false;
+        }
+    }
+
+    private OnlineManagementClient createClient() {
+        return ManagementClient.onlineLazy(OnlineOptions.standalone()
+                .hostAndPort(managementAddress, managementPort)
+                .build());
+    }
+
+    @Override
+    public String toString() {
+        return "server instance " + baseDir + " (port offset " + portOffset + ")";
+    }
+}
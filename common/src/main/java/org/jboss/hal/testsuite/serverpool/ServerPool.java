@@ -0,0 +1,126 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.hal.testsuite.serverpool;
+
+import org.jboss.hal.testsuite.cli.CliSessionPool;
+import org.jboss.hal.testsuite.util.ConfigUtils;
+import org.jboss.hal.testsuite.util.Console;
+import org.jboss.hal.testsuite.util.ParallelExecution;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Pool of local standalone servers, one per surefire fork (<code>-PserverPool</code>). The fork with number N starts
+ * its own copy of <code>jboss.dist</code> with port offset N * <code>suite.server.pool.offset.step</code> and points
+ * <code>as.managementPort</code>, <code>arq.managementPort</code> and <code>suite.url</code> to it, so that forks don't
+ * interfere with each other. An instance left in restart-required state by a test class is recycled from its pristine
+ * configuration.
+ */
+public final class ServerPool {
+
+    private static final Logger log = LoggerFactory.getLogger(ServerPool.class);
+
+    private static final boolean ENABLED = Boolean.parseBoolean(ConfigUtils.get("suite.server.pool", "false"));
+    private static final ServerPool INSTANCE = new ServerPool();
+
+    private ServerInstance server;
+
+    private ServerPool() {
+        Runtime.getRuntime().addShutdownHook(new Thread(this::stop, "server-pool-shutdown"));
+    }
+
+    public static ServerPool getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * @return true if every fork should run against its own server
+     */
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * Starts server of this fork unless it is running already and points the suite configuration to it.
+     *
+     * @return server of this fork
+     */
+    public synchronized ServerInstance acquire() throws IOException, InterruptedException, TimeoutException {
+        if (server == null) {
+            if (ConfigUtils.isDomain()) {
+                throw new IllegalStateException("Server pool supports standalone mode only");
+            }
+            int fork = Integer.parseInt(ParallelExecution.getForkNumber());
+            int offset = fork * Integer.parseInt(ConfigUtils.get("suite.server.pool.offset.step", "100"));
+            String home = ConfigUtils.get("jboss.home", ConfigUtils.getDistHome());
+            String managementAddress = ConfigUtils.get("as.managementAddress", "localhost");
+            int managementPort = Integer.parseInt(ConfigUtils.get("as.managementPort", "9990"));
+            server = new ServerInstance(new File(home),
+                    new File(ConfigUtils.get("suite.server.pool.dir", "target/server-pool"), "instance-" + fork),
+                    ConfigUtils.get("suite.server.pool.config", "standalone-full-ha.xml"),
+                    managementAddress, managementPort, offset,
+                    Long.parseLong(ConfigUtils.get("suite.server.pool.startup.timeout", "120")) * 1000);
+            pointConfigurationTo(server);
+        }
+        server.start();
+        return server;
+    }
+
+    /**
+     * Restarts server of this fork from its pristine configuration.
+     */
+    public synchronized void recycle() throws IOException, InterruptedException, TimeoutException {
+        if (server != null) {
+            Console.requireFullReload();
+            server.recycle();
+            CliSessionPool.getInstance().closeAll();
+        }
+    }
+
+    private synchronized void stop() {
+        if (server != null) {
+            try {
+                server.stop();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static void pointConfigurationTo(ServerInstance server) throws MalformedURLException {
+        String port = String.valueOf(server.getManagementPort());
+        URL url = ConfigUtils.getUrl();
+        int consolePort = url.getPort() == -1 ? url.getDefaultPort() : url.getPort();
+        URL serverUrl = new URL(url.getProtocol(), url.getHost(), consolePort + server.getPortOffset(), url.getFile());
+        log.info("Fork {} runs against {}, console at {}", ParallelExecution.getForkNumber(), server, serverUrl);
+        ConfigUtils.override("as.managementPort", port);
+        ConfigUtils.override("arq.managementPort", port);
+        ConfigUtils.override("suite.url", serverUrl.toString());
+    }
+}
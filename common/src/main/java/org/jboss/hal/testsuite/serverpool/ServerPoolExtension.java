@@ -0,0 +1,61 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+
+package org.jboss.hal.testsuite.serverpool;
+
+import org.jboss.arquillian.core.api.annotation.Observes;
+import org.jboss.arquillian.core.spi.LoadableExtension;
+import org.jboss.arquillian.test.spi.event.suite.AfterClass;
+import org.jboss.hal.testsuite.testlistener.ServerStateLoggerOperations;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Arquillian extension recycling server of the fork (see {@link ServerPool}) right after a test class which left it in
+ * restart-required state, so that the following test classes of the fork run against a healthy server. Surefire
+ * reports run start and finish only once per reused fork, so this can't be done by a run listener. Applies to tests
+ * run by Arquillian.
+ */
+public class ServerPoolExtension implements LoadableExtension {
+
+    @Override
+    public void register(ExtensionBuilder builder) {
+        if (ServerPool.isEnabled()) {
+            builder.observer(ServerPoolObserver.class);
+        }
+    }
+
+    public static class ServerPoolObserver {
+
+        private static final Logger log = LoggerFactory.getLogger(ServerPoolObserver.class);
+        private final ServerStateLoggerOperations ops = new ServerStateLoggerOperations();
+
+        public void recycleIfRestartRequired(@Observes(precedence = -100) AfterClass event) throws Exception {
+            if (ops.isRestartRequired()) {
+                log.warn("Restart is required after '{}' run, recycling server of this fork",
+                        event.getTestClass().getName());
+                ServerPool.getInstance().recycle();
+            }
+        }
+    }
+}
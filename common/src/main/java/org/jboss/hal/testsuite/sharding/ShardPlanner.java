@@ -0,0 +1,244 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.hal.testsuite.sharding;
+
+import org.apache.commons.io.FileUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalDouble;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * Splits test classes into shards of about the same duration, e.g. to run <code>-Pbasic</code> on several CI agents.
+ * Duration of every class is taken from previous surefire reports (see {@link SurefireReports}), classes which leave
+ * the server reload-required are charged with the reload the next class pays for. Classes without history are
+ * estimated as the average of known classes from the same package (or the closest parent package having any).
+ * Shards are filled greedily, the longest class first to the least loaded shard.
+ * <p/>
+ * Usage (from the root of the project):
+ * <pre>
+ * mvn -pl common exec:java -Dexec.mainClass=org.jboss.hal.testsuite.sharding.ShardPlanner -Dshard.count=4
+ * </pre>
+ * Supported properties:
+ * <ul>
+ *   <li><code>shard.count</code> - number of shards, 2 by default</li>
+ *   <li><code>shard.sources</code> - comma separated test source directories, <code>basic/src/test/java</code> by
+ *   default</li>
+ *   <li><code>shard.reports</code> - comma separated directories with previous surefire reports,
+ *   <code>basic/target/surefire-reports</code> by default</li>
+ *   <li><code>shard.logs</code> - comma separated log files to search for server state warnings, none by default</li>
+ *   <li><code>shard.reload.cost</code> - seconds charged for a reload, 10 by default</li>
+ *   <li><code>shard.output</code> - directory to write <code>shard-N.txt</code> files with <code>-Dtest</code> values
+ *   to, nothing is written by default</li>
+ * </ul>
+ * Relative paths are resolved against the working directory (see <code>-Dexec.workingdir</code>).
+ */
+public final class ShardPlanner {
+
+    private static final double DEFAULT_DURATION = 60;
+
+    private final Map<String, Double> durations;
+    private final Set<String> leavingReloadRequired;
+    private final double reloadCost;
+
+    public ShardPlanner(SurefireReports reports, double reloadCost) {
+        this.durations = reports.getDurations();
+        this.leavingReloadRequired = reports.getLeavingReloadRequired();
+        this.reloadCost = reloadCost;
+    }
+
+    public static void main(String[] args) throws IOException {
+        int count = Integer.parseInt(System.getProperty("shard.count", "2"));
+        double reloadCost = Double.parseDouble(System.getProperty("shard.reload.cost", "10"));
+
+        SurefireReports reports = new SurefireReports();
+        for (String directory : split(System.getProperty("shard.reports", "basic/target/surefire-reports"))) {
+            reports.readDirectory(new File(directory));
+        }
+        for (String logFile : split(System.getProperty("shard.logs", ""))) {
+            reports.readLog(new File(logFile));
+        }
+
+        Set<String> classes = new TreeSet<>();
+        for (String directory : split(System.getProperty("shard.sources", "basic/src/test/java"))) {
+            classes.addAll(findTestClasses(new File(directory)));
+        }
+        if (classes.isEmpty()) {
+            classes.addAll(reports.getDurations().keySet());
+        }
+
+        ShardPlanner planner = new ShardPlanner(reports, reloadCost);
+        List<Shard> shards = planner.plan(classes, count);
+
+        String output = System.getProperty("shard.output");
+        for (int i = 0; i < shards.size(); i++) {
+            Shard shard = shards.get(i);
+            System.out.println(String.format("Shard %d: %d classes, estimated %.0f s", i + 1,
+                    shard.getClasses().size(), shard.getCost()));
+            System.out.println("-Dtest=" + shard.toTestParameter());
+            if (output != null) {
+                FileUtils.writeStringToFile(new File(output, "shard-" + (i + 1) + ".txt"), shard.toTestParameter(),
+                        StandardCharsets.UTF_8);
+            }
+        }
+    }
+
+    /**
+     * @param classes fully qualified names of test classes to split
+     * @param count   number of shards
+     * @return shards ordered as created, some may be empty if there are less classes than shards
+     */
+    public List<Shard> plan(Collection<String> classes, int count) {
+        List<Shard> shards = new ArrayList<>();
+        for (int i = 0; i < Math.max(count, 1); i++) {
+            shards.add(new Shard());
+        }
+        Map<String, Double> costs = new HashMap<>();
+        classes.forEach(className -> costs.put(className, estimateCost(className)));
+        List<String> sorted = new ArrayList<>(costs.keySet());
+        sorted.sort(Comparator.comparing((String className) -> -costs.get(className))
+                .thenComparing(Comparator.naturalOrder()));
+        for (String className : sorted) {
+            Collections.min(shards, Comparator.comparingDouble(Shard::getCost)).add(className, costs.get(className));
+        }
+        return shards;
+    }
+
+    /**
+     * @return estimated cost of given class in seconds, including the reload it leaves behind
+     */
+    public double estimateCost(String className) {
+        double cost = estimateDuration(className);
+        if (leavingReloadRequired.contains(className)) {
+            cost += reloadCost;
+        }
+        return cost;
+    }
+
+    /**
+     * @return duration of the last run of given class or average duration of classes from the closest package
+     */
+    public double estimateDuration(String className) {
+        Double known = durations.get(className);
+        if (known != null) {
+            return known;
+        }
+        String packageName = getPackage(className);
+        while (true) {
+            String prefix = packageName.isEmpty() ? "" : packageName + ".";
+            OptionalDouble average = durations.entrySet().stream()
+                    .filter(e -> e.getKey().startsWith(prefix))
+                    .mapToDouble(Map.Entry::getValue)
+                    .average();
+            if (average.isPresent()) {
+                return average.getAsDouble();
+            }
+            if (packageName.isEmpty()) {
+                return DEFAULT_DURATION;
+            }
+            packageName = getPackage(packageName);
+        }
+    }
+
+    private static String getPackage(String className) {
+        int lastDot = className.lastIndexOf('.');
+        return lastDot < 0 ? "" : className.substring(0, lastDot);
+    }
+
+    /**
+     * Finds classes surefire runs by default, i.e. <code>Test*</code>, <code>*Test</code> and <code>*TestCase</code>
+     * which are not abstract.
+     */
+    static List<String> findTestClasses(File sourceDirectory) throws IOException {
+        List<String> classes = new ArrayList<>();
+        if (!sourceDirectory.isDirectory()) {
+            return classes;
+        }
+        for (File file : FileUtils.listFiles(sourceDirectory, new String[]{"java"}, true)) {
+            String simpleName = file.getName().substring(0, file.getName().length() - ".java".length());
+            if (!(simpleName.startsWith("Test") || simpleName.endsWith("Test") || simpleName.endsWith("TestCase"))) {
+                continue;
+            }
+            String content = FileUtils.readFileToString(file, StandardCharsets.UTF_8);
+            if (content.contains("abstract class " + simpleName)) {
+                continue;
+            }
+            String relative = sourceDirectory.toURI().relativize(file.toURI()).getPath();
+            classes.add(relative.substring(0, relative.length() - ".java".length()).replace('/', '.'));
+        }
+        return classes;
+    }
+
+    private static List<String> split(String value) {
+        List<String> values = new ArrayList<>();
+        for (String item : value.split(",")) {
+            if (!item.trim().isEmpty()) {
+                values.add(item.trim());
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Set of test classes to be run together.
+     */
+    public static final class Shard {
+
+        private final List<String> classes = new ArrayList<>();
+        private double cost;
+
+        private void add(String className, double classCost) {
+            classes.add(className);
+            cost += classCost;
+        }
+
+        public List<String> getClasses() {
+            return classes;
+        }
+
+        /**
+         * @return estimated duration of the shard in seconds
+         */
+        public double getCost() {
+            return cost;
+        }
+
+        /**
+         * @return value of surefire's <code>test</code> parameter selecting classes of this shard
+         */
+        public String toTestParameter() {
+            return classes.stream().map(c -> c.replace('.', '/')).collect(Collectors.joining(","));
+        }
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.hal.testsuite.sharding;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+import org.xml.sax.SAXException;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Historical data of test classes read from surefire reports (<code>TEST-*.xml</code>) and test output. For every
+ * class the duration of its last run is taken, including time spent in <code>@BeforeClass</code> and
+ * <code>@AfterClass</code> (except classes run by a suite, for which just the time of their test methods is known). Classes which left the server in reload-required or restart-required state are recognized
+ * by the warnings logged by {@link org.jboss.hal.testsuite.testlistener.ServerStateLogger}.
+ */
+public final class SurefireReports {
+
+    private static final Logger log = LoggerFactory.getLogger(SurefireReports.class);
+
+    private static final Pattern SERVER_STATE_WARNING =
+            Pattern.compile("(Reload|Restart) is required after '([^']+)' run!");
+
+    private final Map<String, Double> durations = new HashMap<>();
+    private final Set<String> leavingReloadRequired = new HashSet<>();
+
+    /**
+     * @return duration of the last run in seconds per fully qualified class name
+     */
+    public Map<String, Double> getDurations() {
+        return Collections.unmodifiableMap(durations);
+    }
+
+    /**
+     * @return fully qualified names of classes which left the server in reload-required or restart-required state
+     */
+    public Set<String> getLeavingReloadRequired() {
+        return Collections.unmodifiableSet(leavingReloadRequired);
+    }
+
+    /**
+     * Reads all <code>TEST-*.xml</code> reports and <code>*-output.txt</code> files in given directory.
+     */
+    public SurefireReports readDirectory(File directory) throws IOException {
+        File[] files = directory.listFiles();
+        if (files == null) {
+            log.warn("No surefire reports found in {}", directory);
+            return this;
+        }
+        for (File file : files) {
+            if (file.getName().startsWith("TEST-") && file.getName().endsWith(".xml")) {
+                readReport(file);
+            } else if (file.getName().endsWith("-output.txt")) {
+                readLog(file);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Reads server state warnings from given log file, e.g. output of the whole maven run.
+     */
+    public SurefireReports readLog(File file) throws IOException {
+        readServerStateWarnings(new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8));
+        return this;
+    }
+
+    private void readReport(File file) throws IOException {
+        Document document;
+        try {
+            document = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(file);
+        } catch (ParserConfigurationException | SAXException e) {
+            log.warn("Unable to parse surefire report " + file, e);
+            return;
+        }
+        Element suite = document.getDocumentElement();
+        String className = suite.getAttribute("name");
+        double suiteTime = parseTime(suite.getAttribute("time"));
+        double casesTime = 0;
+        Map<String, Double> nestedTimes = new HashMap<>();
+        NodeList testCases = suite.getElementsByTagName("testcase");
+        for (int i = 0; i < testCases.getLength(); i++) {
+            Element testCase = (Element) testCases.item(i);
+            double time = parseTime(testCase.getAttribute("time"));
+            casesTime += time;
+            String testCaseClassName = testCase.getAttribute("classname");
+            if (!testCaseClassName.isEmpty() && !testCaseClassName.equals(className)) {
+                nestedTimes.merge(testCaseClassName, time, Double::sum);
+            }
+        }
+        // suite time covers @BeforeClass and @AfterClass as well, but don't rely on it in older surefire versions
+        durations.put(className, Math.max(suiteTime, casesTime));
+        // classes run by a suite (e.g. ReloadAwareSuite) are reported in the suite's report
+        nestedTimes.forEach(durations::putIfAbsent);
+
+        for (String output : new String[]{"system-out", "system-err"}) {
+            NodeList nodes = suite.getElementsByTagName(output);
+            for (int i = 0; i < nodes.getLength(); i++) {
+                readServerStateWarnings(nodes.item(i).getTextContent());
+            }
+        }
+    }
+
+    private void readServerStateWarnings(String text) {
+        Matcher matcher = SERVER_STATE_WARNING.matcher(text);
+        while (matcher.find()) {
+            leavingReloadRequired.add(matcher.group(2));
+        }
+    }
+
+    private static double parseTime(String time) {
+        if (time == null || time.isEmpty()) {
+            return 0;
+        }
+        try {
+            return Double.parseDouble(time.replace(",", ""));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
@@ -47,7 +47,7 @@ public class ConfigSnapshotTaker extends TestCaseRunListener {
     }
 
     private File getSourceFile() throws IOException {
-        try (OnlineManagementClient client = ManagementClientProvider.createOnlineManagementClient()) {
+        try (OnlineManagementClient client = ManagementClientProvider.leaseOnlineManagementClient()) {
             ModelNodeResult result = new Operations(client).invoke("take-snapshot", Address.root());
             String path = result.stringValue();
             File copyFrom = new File(path);
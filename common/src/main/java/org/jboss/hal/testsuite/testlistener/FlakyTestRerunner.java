@@ -0,0 +1,116 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+
+package org.jboss.hal.testsuite.testlistener;
+
+import org.jboss.hal.testsuite.quarantine.FlakinessHistory;
+import org.jboss.hal.testsuite.quarantine.FlakinessHistory.Outcome;
+import org.jboss.hal.testsuite.util.ConfigUtils;
+import org.junit.runner.Description;
+import org.junit.runner.JUnitCore;
+import org.junit.runner.Request;
+import org.junit.runner.Result;
+import org.junit.runner.notification.Failure;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * {@link org.junit.runner.notification.RunListener} rerunning failed test methods right after their test case has
+ * finished, while the server is still warm. Every rerun runs just the failed method in its own test case lifecycle,
+ * i.e. with a fresh browser. Outcome of every method (passed, failed, passed on rerun) is recorded to
+ * {@link FlakinessHistory}, which quarantines methods with high flakiness score (see
+ * {@link org.jboss.hal.testsuite.quarantine.QuarantineExtension}).
+ * <p/>
+ * The original failure stays reported, passing rerun is logged as a flaky test.
+ * <p/>
+ * Surefire notifies the run start and finish once per fork, so the profiles using this listener run every test class
+ * in its own fork (<code>reuseForks=false</code>), otherwise the reruns would wait for the end of the whole run.
+ */
+public class FlakyTestRerunner extends TestCaseRunListener {
+
+    private static final Logger log = LoggerFactory.getLogger(FlakyTestRerunner.class);
+
+    private static final int RERUNS = Integer.parseInt(ConfigUtils.get("suite.flaky.reruns", "1"));
+
+    /**
+     * Finished methods of current test case, true if passed, false if failed, null if skipped by an assumption.
+     */
+    private final Map<Description, Boolean> finished = new LinkedHashMap<>();
+
+    @Override
+    protected void beforeTestCase() throws Exception {
+        finished.clear();
+    }
+
+    @Override
+    public void testFinished(Description description) throws Exception {
+        if (!finished.containsKey(description)) {
+            finished.put(description, true);
+        }
+    }
+
+    @Override
+    public void testFailure(Failure failure) throws Exception {
+        finished.put(failure.getDescription(), false);
+    }
+
+    @Override
+    public void testAssumptionFailure(Failure failure) {
+        finished.put(failure.getDescription(), null);
+    }
+
+    @Override
+    protected void afterTestCase() throws Exception {
+        for (Map.Entry<Description, Boolean> entry : finished.entrySet()) {
+            Description description = entry.getKey();
+            if (entry.getValue() == null || description.getTestClass() == null
+                    || description.getMethodName() == null) {
+                continue;
+            }
+            String testMethod = FlakinessHistory.key(description.getTestClass(), description.getMethodName());
+            Outcome outcome = entry.getValue() ? Outcome.PASSED : rerun(description);
+            FlakinessHistory.getInstance().record(testMethod, outcome);
+        }
+        finished.clear();
+    }
+
+    private Outcome rerun(Description description) {
+        String testMethod = FlakinessHistory.key(description.getTestClass(), description.getMethodName());
+        if (description.getMethodName().contains("[")) {
+            log.info("Not rerunning parametrized test {}", testMethod);
+            return Outcome.FAILED;
+        }
+        for (int i = 1; i <= RERUNS; i++) {
+            log.info("Rerunning failed test {} ({}/{})", testMethod, i, RERUNS);
+            Result result = new JUnitCore().run(Request.method(description.getTestClass(), description.getMethodName()));
+            if (result.wasSuccessful() && result.getRunCount() > 0) {
+                log.warn("Test {} passed on rerun {}, it is flaky", testMethod, i);
+                return Outcome.PASSED_ON_RERUN;
+            }
+        }
+        return Outcome.FAILED;
+    }
+}
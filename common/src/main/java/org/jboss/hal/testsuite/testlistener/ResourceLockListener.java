@@ -0,0 +1,84 @@
+package org.jboss.hal.testsuite.testlistener;
+
+import org.apache.commons.io.FileUtils;
+import org.jboss.hal.testsuite.util.ConfigUtils;
+import org.jboss.hal.testsuite.util.ParallelExecution;
+import org.jboss.hal.testsuite.util.ResourceLockRegistry;
+import org.junit.runner.Description;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * {@link org.junit.runner.notification.RunListener} used in parallel execution (<code>-Pparallel</code>). Holds the
+ * shared lock of the root while a test case runs, so that no other fork reloads the server meanwhile. Releases
+ * all resource locks acquired by a test case once it finishes and records the exclusive ones as the test case's
+ * footprint.
+ * Before the test case runs next time, all locks of its footprint are acquired up front in global order, so forks
+ * don't end up waiting for each other.
+ * <p/>
+ * Surefire notifies the run start and finish once per fork, so the profile runs every test class in its own fork
+ * (<code>reuseForks=false</code>), otherwise the locks would be held until the whole fork finishes.
+ */
+public class ResourceLockListener extends TestCaseRunListener {
+
+    private static final Logger log = LoggerFactory.getLogger(ResourceLockListener.class);
+
+    private static final File FOOTPRINT_DIR = new File(ConfigUtils.get("suite.parallel.footprint.dir",
+            "target/resource-footprints"));
+
+    @Override
+    public void testRunStarted(Description description) throws Exception {
+        super.testRunStarted(description);
+        String testCase = findTestCaseName(description);
+        if (!ParallelExecution.isEnabled() || testCase == null) {
+            return;
+        }
+        // guards the whole test class against reloads of other forks
+        ResourceLockRegistry.getInstance().acquireShared("");
+        File footprint = new File(FOOTPRINT_DIR, testCase + ".txt");
+        if (footprint.isFile()) {
+            List<String> resources = FileUtils.readLines(footprint, StandardCharsets.UTF_8);
+            log.debug("Acquiring locks of {} resources touched by '{}' last time", resources.size(), testCase);
+            ResourceLockRegistry.getInstance().acquireAll(resources);
+        }
+    }
+
+    @Override
+    protected void afterTestCase() throws Exception {
+        if (!ParallelExecution.isEnabled()) {
+            return;
+        }
+        Set<String> held = ResourceLockRegistry.getInstance().getHeld();
+        String testCase = getCurrentTestCaseCanonicalName();
+        if (testCase != null) {
+            try {
+                FileUtils.writeLines(new File(FOOTPRINT_DIR, testCase + ".txt"), StandardCharsets.UTF_8.name(), held);
+            } catch (IOException e) {
+                log.warn("Unable to record resource footprint of '" + testCase + "'", e);
+            }
+        }
+        ResourceLockRegistry.getInstance().releaseAll();
+    }
+
+    private static String findTestCaseName(Description description) {
+        if (description == null) {
+            return null;
+        }
+        if (description.getTestClass() != null) {
+            return description.getTestClass().getCanonicalName();
+        }
+        for (Description child : description.getChildren()) {
+            String name = findTestCaseName(child);
+            if (name != null) {
+                return name;
+            }
+        }
+        return null;
+    }
+}
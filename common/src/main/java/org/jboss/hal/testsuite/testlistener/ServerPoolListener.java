@@ -0,0 +1,19 @@
+package org.jboss.hal.testsuite.testlistener;
+
+import org.jboss.hal.testsuite.serverpool.ServerPool;
+
+/**
+ * {@link org.junit.runner.notification.RunListener} used with server pool (<code>-PserverPool</code>). Starts server
+ * of the fork before its first test case, i.e. before Arquillian connects to it. Surefire reports the run start once
+ * per fork, test classes leaving the server in restart-required state are handled by
+ * {@link org.jboss.hal.testsuite.serverpool.ServerPoolExtension}.
+ */
+public class ServerPoolListener extends TestCaseRunListener {
+
+    @Override
+    protected void beforeTestCase() throws Exception {
+        if (ServerPool.isEnabled()) {
+            ServerPool.getInstance().acquire();
+        }
+    }
+}
@@ -25,7 +25,9 @@ package org.jboss.hal.testsuite.testlistener;
 import java.io.IOException;
 import java.util.Map;
 
+import org.jboss.hal.testsuite.scheduling.ReloadHistory;
 import org.jboss.hal.testsuite.util.ConfigUtils;
+import org.jboss.hal.testsuite.util.Console;
 import org.junit.runner.notification.RunListener;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -44,9 +46,11 @@ public class ServerStateLogger extends TestCaseRunListener {
     private static final Logger log = LoggerFactory.getLogger(ServerStateLogger.class);
     private final ServerStateLoggerOperations ops = new ServerStateLoggerOperations();
     private Map<String, Map<String, String>> initServerStateMap;
+    private int initServerReloadCount;
 
     @Override
     protected void beforeTestCase() throws Exception {
+        initServerReloadCount = Console.getServerReloadCount();
         if (ConfigUtils.isDomain()) {
             initServerStateMap = ops.getServerStateMap();
         }
@@ -76,9 +80,12 @@ public class ServerStateLogger extends TestCaseRunListener {
     }
 
     private void checkReloadRequired() throws IOException {
-        if (ops.isReloadRequired()) {
+        boolean reloadRequired = ops.isReloadRequired();
+        if (reloadRequired) {
             log.warn("Reload is required after '{}' run!", getCurrentTestCaseCanonicalName());
         }
+        boolean reloaded = Console.getServerReloadCount() != initServerReloadCount;
+        ReloadHistory.getInstance().record(getCurrentTestCaseCanonicalName(), reloadRequired, reloaded);
     }
 
 }
@@ -63,7 +63,7 @@ public class ServerStateLoggerOperations {
     }
 
     private <T> T tryWithClient(Function<OnlineManagementClient, T> modelReadFunction) throws IOException {
-        try (OnlineManagementClient client = ManagementClientProvider.createOnlineManagementClient()) {
+        try (OnlineManagementClient client = ManagementClientProvider.leaseOnlineManagementClient()) {
             return modelReadFunction.apply(client);
         }
     }
@@ -0,0 +1,100 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+
+package org.jboss.hal.testsuite.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Lists classes of a module (classes directory or jar) at runtime, e.g. to find all page objects or test classes.
+ */
+public final class ClassScanner {
+
+    private ClassScanner() {
+    }
+
+    /**
+     * @param anchor any class of the module
+     * @return names of all top level classes of the module the anchor class was loaded from
+     * @throws IOException if the module location can't be read
+     */
+    public static List<String> findClassNames(Class<?> anchor) throws IOException {
+        File location;
+        try {
+            location = new File(anchor.getProtectionDomain().getCodeSource().getLocation().toURI());
+        } catch (URISyntaxException e) {
+            throw new IOException("Unable to locate module of " + anchor, e);
+        }
+        List<String> paths = new ArrayList<>();
+        if (location.isDirectory()) {
+            Path root = location.toPath();
+            try (Stream<Path> files = Files.walk(root)) {
+                paths.addAll(files.map(file -> root.relativize(file).toString().replace(File.separatorChar, '/'))
+                        .collect(Collectors.toList()));
+            }
+        } else {
+            try (JarFile jar = new JarFile(location)) {
+                Enumeration<JarEntry> entries = jar.entries();
+                while (entries.hasMoreElements()) {
+                    paths.add(entries.nextElement().getName());
+                }
+            }
+        }
+        return paths.stream()
+                .filter(path -> path.endsWith(".class") && !path.contains("$"))
+                .map(path -> path.substring(0, path.length() - ".class".length()).replace('/', '.'))
+                .sorted()
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * @return classes of the module the anchor class was loaded from which are assignable to given type, not
+     * initialized
+     * @throws IOException if the module location can't be read
+     */
+    public static <T> List<Class<? extends T>> findSubtypes(Class<?> anchor, Class<T> type) throws IOException {
+        List<Class<? extends T>> subtypes = new ArrayList<>();
+        for (String className : findClassNames(anchor)) {
+            try {
+                Class<?> candidate = Class.forName(className, false, anchor.getClassLoader());
+                if (type.isAssignableFrom(candidate) && candidate != type) {
+                    subtypes.add(candidate.asSubclass(type));
+                }
+            } catch (ClassNotFoundException | LinkageError e) {
+                // not loadable in this environment, e.g. missing optional dependency
+            }
+        }
+        return subtypes;
+    }
+}
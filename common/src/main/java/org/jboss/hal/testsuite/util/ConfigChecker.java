@@ -31,7 +31,10 @@ import org.wildfly.extras.creaper.core.online.operations.Address;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.TimeoutException;
 
 /**
@@ -85,9 +88,17 @@ public final class ConfigChecker {
         this.client = builder.client;
         this.resourceAddress = builder.resourceAddress;
         Editor editor = builder.config.edit();
+        List<Input> batch = new ArrayList<>();
         for (Input input : builder.inputList) {
-            enter(editor, input);
+            if (Editor.isBulkFillEnabled() && input.inputMethod == InputMethod.MACHINE) {
+                batch.add(input);
+            } else {
+                enter(editor, batch);
+                batch.clear();
+                enter(editor, input);
+            }
         }
+        enter(editor, batch);
         this.saved = builder.config.save();
         if (!this.saved) {
             builder.config.cancel(); // cleanup
@@ -124,6 +135,26 @@ public final class ConfigChecker {
         }
     }
 
+    /**
+     * Fills given inputs at once, inputs which could not be filled this way are entered one by one.
+     */
+    private void enter(Editor editor, List<Input> inputs) throws IOException, InterruptedException, TimeoutException {
+        if (inputs.isEmpty()) {
+            return;
+        }
+        Map<String, Object> values = new LinkedHashMap<>();
+        for (Input input : inputs) {
+            values.put(input.identifier, input.inputType == InputType.CHECKBOX ? getBooleanAttrValue(input)
+                    : getStringAttrValue(input));
+        }
+        Set<String> notFilled = editor.fill(values);
+        for (Input input : inputs) {
+            if (notFilled.contains(input.identifier)) {
+                enter(editor, input);
+            }
+        }
+    }
+
     private void enter(Editor editor, Input input) throws IOException, InterruptedException, TimeoutException {
         switch (input.inputType) {
             case TEXT:
@@ -164,7 +195,9 @@ public final class ConfigChecker {
 
         /**
          * Set field identified by <b>{@code identifier}</b> to be edited with <b>{@code attrValue}</b>. Can be called
-         * multiple times. The actual edit will be performed as soon as client calls the {@link #andSave()} </b>
+         * multiple times. The actual edit will be performed as soon as client calls the {@link #andSave()} </b>,
+         * all such fields are filled at once by {@link Editor#fill(Map)} unless <code>suite.editor.bulk.fill</code> is
+         * switched off.
          */
         public Builder edit(InputType inputType, String identifier, Object attrValue) {
             return edit(inputType, identifier, attrValue, InputMethod.MACHINE);
@@ -58,6 +58,15 @@ public class ConfigUtils {
         return config.getProperty(key, defval);
     }
 
+    /**
+     * Overrides given property both in suite configuration and in system properties, e.g. when the server to test
+     * against is decided at runtime. Has to be called before the property is read by anyone.
+     */
+    public static void override(String key, String value) {
+        config.setProperty(key, value);
+        System.setProperty(key, value);
+    }
+
     public static boolean isEAP() {
         return get("suite.server", "eap").toLowerCase().equals("eap");
     }
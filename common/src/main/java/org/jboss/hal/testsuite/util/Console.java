@@ -16,6 +16,7 @@ import org.jboss.hal.testsuite.page.BasePage;
 import org.jboss.hal.testsuite.page.home.HomePage;
 import org.openqa.selenium.By;
 import org.openqa.selenium.Dimension;
+import org.openqa.selenium.JavascriptExecutor;
 import org.openqa.selenium.Keys;
 import org.openqa.selenium.NoSuchElementException;
 import org.openqa.selenium.TimeoutException;
@@ -26,6 +27,7 @@ import org.slf4j.LoggerFactory;
 
 import java.util.List;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Created by jcechace on 18/02/14.
@@ -34,6 +36,12 @@ public class Console {
 
     private static final Logger log = LoggerFactory.getLogger(Console.class);
 
+    private static final long IDLE_TIMEOUT = Long.parseLong(ConfigUtils.get("suite.console.idle.timeout", "10000"));
+    private static final By HEADER_SELECTOR = By.id("header-links-section");
+
+    private static volatile boolean fullReloadRequired;
+    private static final AtomicInteger SERVER_RELOADS = new AtomicInteger();
+
     private WebDriver browser;
 
     public static Console withBrowser(WebDriver browser) {
@@ -48,14 +56,105 @@ public class Console {
     }
 
     /**
-     * Wait until the application is loaded.
+     * Wait until the application is loaded. If idle detection is enabled, waits until the console is idle instead and
+     * falls back to waiting for the progress element only if it does not get idle in time.
      */
     public Console waitUntilLoaded() {
-        // TODO: this should rather wait until the loading box is not present
+        if (ConsoleIdleDetector.isEnabled() && waitUntilIdle()) {
+            return this;
+        }
         Graphene.waitModel().withTimeout(30, TimeUnit.SECONDS).until().element(By.className("hal-ProgressElement")).is().not().visible();
         return this;
     }
 
+    /**
+     * Marks that the console must be fully reloaded before it can be reused, see {@link #isReusable()}. Called
+     * whenever the server gets reloaded or restarted via {@link org.jboss.hal.testsuite.cli.CliClient} or a client of
+     * {@link org.jboss.hal.testsuite.creaper.ManagementClientProvider}.
+     */
+    public static void requireFullReload() {
+        fullReloadRequired = true;
+        SERVER_RELOADS.incrementAndGet();
+    }
+
+    /**
+     * Called once the console gets fully reloaded.
+     */
+    private static void clearFullReloadRequired() {
+        fullReloadRequired = false;
+    }
+
+    /**
+     * @return number of server reloads and restarts seen so far, i.e. calls of {@link #requireFullReload()}
+     */
+    public static int getServerReloadCount() {
+        return SERVER_RELOADS.get();
+    }
+
+    /**
+     * @return true if the console is loaded and in a state in which it can be navigated in-app without reload, i.e.
+     * the application is loaded, its header is present, no modal window is left open and full reload was not required
+     * via {@link #requireFullReload()}
+     */
+    public boolean isReusable() {
+        if (fullReloadRequired) {
+            return false;
+        }
+        try {
+            String currentUrl = browser.getCurrentUrl();
+            return currentUrl != null && currentUrl.startsWith(ConfigUtils.getUrl().toString())
+                    && !browser.findElements(HEADER_SELECTOR).isEmpty()
+                    && browser.findElements(WindowFragment.ROOT_SELECTOR).isEmpty();
+        } catch (RuntimeException e) {
+            log.debug("Unable to inspect console state", e);
+            return false;
+        }
+    }
+
+    /**
+     * Reloads the whole console and navigates to given page.
+     */
+    public <T extends BasePage> Console reload(Class<T> page) {
+        clearFullReloadRequired();
+        browser.navigate().refresh();
+        Graphene.goTo(page);
+        return waitUntilLoaded();
+    }
+
+    /**
+     * @return current place token, i.e. <code>location.hash</code> without leading '#'
+     */
+    public String getPlaceToken() {
+        return (String) ((JavascriptExecutor) browser).executeScript("return window.location.hash.replace(/^#/, '');");
+    }
+
+    /**
+     * Switches to given place via <code>location.hash</code> without reloading the console. The idle detector is
+     * installed before the hash is changed, then it waits until the new place has started to render (DOM changed)
+     * and the console got idle. Waiting for the progress element only would race with the place change, which the
+     * console handles asynchronously, so it is just a fallback if the console does not get idle in time.
+     *
+     * @param token place token without leading '#'
+     */
+    public Console goToPlace(String token) {
+        ConsoleIdleDetector.State before = ConsoleIdleDetector.probe(browser);
+        boolean changing = before != null && !token.equals(getPlaceToken());
+        ((JavascriptExecutor) browser).executeScript("window.location.hash = arguments[0];", token);
+        if (changing && ConsoleWait.at("Console.goToPlace", browser, IDLE_TIMEOUT).untilDomChangedSince(before)
+                .untilConsoleIdle()) {
+            return this;
+        }
+        return waitUntilLoaded();
+    }
+
+    /**
+     * @return place token of the {@link org.jboss.arquillian.graphene.page.Location} of given page without leading '#'
+     */
+    public static String toPlaceToken(Class<? extends BasePage> page) {
+        String location = ConfigUtils.getPageLocation(page);
+        return location.startsWith("#") ? location.substring(1) : location;
+    }
+
     public void refresh() {
         browser.navigate().refresh();
         waitUntilFinished();
@@ -70,13 +169,47 @@ public class Console {
     }
 
     /**
-     * Waits until operation is finished (progress bar is hidden)
+     * Waits until operation is finished (progress bar is hidden). If idle detection is enabled, waits until the
+     * console is idle instead, install the detector before the action then, see
+     * {@link ConsoleIdleDetector#installIfEnabled(WebDriver)}.
      */
     public void waitUntilFinished() {
+        if (ConsoleIdleDetector.isEnabled() && waitUntilIdle()) {
+            return;
+        }
         By selector = By.className("hal-ProgressElement");
         Graphene.waitModel().until().element(selector).is().not().visible();
     }
 
+    /**
+     * Waits until there is no management request in flight and DOM is stable, see {@link ConsoleIdleDetector}.
+     * Gives up after <code>suite.console.idle.timeout</code> ms.
+     *
+     * @return true if the console got idle, false if the timeout expired
+     */
+    public boolean waitUntilIdle() {
+        return waitUntilIdle(IDLE_TIMEOUT);
+    }
+
+    /**
+     * Waits until there is no management request in flight and DOM is stable, see {@link ConsoleIdleDetector}.
+     *
+     * @param timeout max time to wait in ms
+     * @return true if the console got idle, false if the timeout expired
+     */
+    public boolean waitUntilIdle(long timeout) {
+        long start = System.currentTimeMillis();
+        while (!ConsoleIdleDetector.isIdle(browser)) {
+            if (System.currentTimeMillis() - start >= timeout) {
+                log.warn("Console did not get idle within {} ms", timeout);
+                return false;
+            }
+            Library.letsSleep(20);
+        }
+        log.trace("Console got idle after {} ms", System.currentTimeMillis() - start);
+        return true;
+    }
+
     /**
      * Retrieves currently opened popup menu which class is {@link PopUpFragment.ROOT_SELECTOR}.
      * @param clazz Class of retrieved popup
@@ -311,6 +444,7 @@ public class Console {
     }
 
     public <T extends BasePage> Console refreshAndNavigate(Class<T> clazz) {
+        clearFullReloadRequired();
         browser.navigate().refresh();
         Graphene.goTo(HomePage.class);
         waitUntilLoaded();
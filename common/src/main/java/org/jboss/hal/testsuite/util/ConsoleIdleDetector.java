@@ -0,0 +1,199 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.hal.testsuite.util;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+
+/**
+ * Detects whether the console is idle. A small script is injected into the page (once per loaded page) which counts
+ * in-flight XHRs, separately those sent to the <code>/management</code> endpoint, and records time of the last DOM
+ * mutation as well as the number of mutations. The console is considered idle when there is no management request in flight, the progress element is
+ * hidden and DOM has been stable for the configured period.
+ * <p/>
+ * Requests sent before the script got injected (i.e. before the first probe after page load) are not counted.
+ */
+public final class ConsoleIdleDetector {
+
+    private static final Logger log = LoggerFactory.getLogger(ConsoleIdleDetector.class);
+
+    /**
+     * Time in ms the DOM has to be stable for the console to be considered idle.
+     */
+    public static final long STABLE_PERIOD = Long.parseLong(ConfigUtils.get("suite.console.idle.stable.period", "100"));
+
+    private static final boolean ENABLED = Boolean.parseBoolean(ConfigUtils.get("suite.console.idle.detection", "false"));
+
+    private static final String PROBE_SCRIPT =
+            "var w = window.__halIdle;"
+            + "if (!w) {"
+            + "  w = window.__halIdle = {pending: 0, management: 0, lastMutation: Date.now(), mutations: 0};"
+            + "  var open = XMLHttpRequest.prototype.open, send = XMLHttpRequest.prototype.send;"
+            + "  XMLHttpRequest.prototype.open = function(method, url) {"
+            + "    this.__halManagement = /\\/management($|[\\/?#])/.test(String(url));"
+            + "    return open.apply(this, arguments);"
+            + "  };"
+            + "  XMLHttpRequest.prototype.send = function() {"
+            + "    var xhr = this, done = false;"
+            + "    var finish = function() {"
+            + "      if (!done) { done = true; w.pending--; if (xhr.__halManagement) { w.management--; } }"
+            + "    };"
+            + "    w.pending++;"
+            + "    if (xhr.__halManagement) { w.management++; }"
+            + "    xhr.addEventListener('loadend', finish);"
+            + "    try { return send.apply(xhr, arguments); } catch (e) { finish(); throw e; }"
+            + "  };"
+            + "  new MutationObserver(function() { w.lastMutation = Date.now(); w.mutations++; }).observe(document.documentElement,"
+            + "      {childList: true, subtree: true, attributes: true, characterData: true});"
+            + "}"
+            + "var progress = false, elements = document.getElementsByClassName('hal-ProgressElement');"
+            + "for (var i = 0; i < elements.length; i++) {"
+            + "  if (elements[i].offsetWidth > 0 || elements[i].offsetHeight > 0) { progress = true; }"
+            + "}"
+            + "return [w.pending, w.management, Date.now() - w.lastMutation, progress, w.mutations];";
+
+    private ConsoleIdleDetector() {
+    }
+
+    /**
+     * @return true if page and save waits of {@link Console} should wait until the console is idle instead of waiting
+     * for particular elements, which was switched on by <code>suite.console.idle.detection=true</code>
+     */
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * Injects the detector if not present yet. Call it before an action which a wait for pending requests follows,
+     * otherwise requests sent by the action itself are missed if it is the first probe on the page.
+     *
+     * @return true if the detector is in place
+     */
+    public static boolean install(WebDriver browser) {
+        return probe(browser) != null;
+    }
+
+    /**
+     * Injects the detector if idle detection is enabled, see {@link #install(WebDriver)}.
+     */
+    public static void installIfEnabled(WebDriver browser) {
+        if (ENABLED) {
+            install(browser);
+        }
+    }
+
+    /**
+     * Injects the detector if not present yet and reads current console state.
+     *
+     * @return current state or null if the page could not be probed (e.g. it is just being reloaded)
+     */
+    public static State probe(WebDriver browser) {
+        try {
+            List<?> result = (List<?>) ((JavascriptExecutor) browser).executeScript(PROBE_SCRIPT);
+            return new State(((Number) result.get(0)).intValue(), ((Number) result.get(1)).intValue(),
+                    ((Number) result.get(2)).longValue(), (Boolean) result.get(3), ((Number) result.get(4)).longValue());
+        } catch (WebDriverException | ClassCastException e) {
+            log.debug("Unable to probe console state", e);
+            return null;
+        }
+    }
+
+    /**
+     * @return true if the console is idle right now
+     */
+    public static boolean isIdle(WebDriver browser) {
+        State state = probe(browser);
+        return state != null && state.isIdle(STABLE_PERIOD);
+    }
+
+    /**
+     * Snapshot of the console state as seen by the injected detector.
+     */
+    public static final class State {
+
+        private final int pendingRequests;
+        private final int pendingManagementRequests;
+        private final long stableFor;
+        private final boolean progressVisible;
+        private final long mutationCount;
+
+        private State(int pendingRequests, int pendingManagementRequests, long stableFor, boolean progressVisible,
+                long mutationCount) {
+            this.pendingRequests = pendingRequests;
+            this.pendingManagementRequests = pendingManagementRequests;
+            this.stableFor = stableFor;
+            this.progressVisible = progressVisible;
+            this.mutationCount = mutationCount;
+        }
+
+        /**
+         * @return number of all XHRs in flight
+         */
+        public int getPendingRequests() {
+            return pendingRequests;
+        }
+
+        /**
+         * @return number of XHRs to <code>/management</code> in flight
+         */
+        public int getPendingManagementRequests() {
+            return pendingManagementRequests;
+        }
+
+        /**
+         * @return time in ms since the last DOM mutation
+         */
+        public long getStableFor() {
+            return stableFor;
+        }
+
+        public boolean isProgressVisible() {
+            return progressVisible;
+        }
+
+        /**
+         * @return number of DOM mutation batches seen since the detector was installed on the page
+         */
+        public long getMutationCount() {
+            return mutationCount;
+        }
+
+        /**
+         * @param stablePeriod time in ms the DOM has to be stable
+         */
+        public boolean isIdle(long stablePeriod) {
+            return pendingManagementRequests == 0 && !progressVisible && stableFor >= stablePeriod;
+        }
+
+        @Override
+        public String toString() {
+            return "pending=" + pendingRequests + ", management=" + pendingManagementRequests + ", stableFor="
+                    + stableFor + ", progressVisible=" + progressVisible + ", mutations=" + mutationCount;
+        }
+    }
+}
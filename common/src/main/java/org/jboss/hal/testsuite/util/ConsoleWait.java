@@ -0,0 +1,231 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.hal.testsuite.util;
+
+import org.jboss.hal.testsuite.cli.Library;
+import org.openqa.selenium.WebDriver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Waits for real console signals instead of fixed sleeps. Every wait belongs to a named call site and has its own
+ * time budget. When the budget is exhausted the wait gives up silently (like the sleep it replaces would) and a warning
+ * is logged. Time actually spent waiting is collected per call site and summarized at the end of the run, so dead time
+ * can be tracked down.
+ * <p/>
+ * Pending requests are counted by {@link ConsoleIdleDetector} only once it is installed on the page, so install it by
+ * {@link ConsoleIdleDetector#install(WebDriver)} before the action the wait follows. Where that is not possible (e.g.
+ * right after a page load) the call site has to rely on the other signals and should say so.
+ * <p/>
+ * Usage:
+ * <pre>
+ * ConsoleIdleDetector.install(browser);
+ * menuItem.click();
+ * ConsoleWait.at("BasePage.selectMenu", browser, 1000).untilConsoleIdle();
+ * ConsoleWait.at("RoleTestCase.removeRole", browser, 1500).untilNoPendingRequests().untilModel(() -> ...).await();
+ * </pre>
+ */
+public final class ConsoleWait {
+
+    private static final Logger log = LoggerFactory.getLogger(ConsoleWait.class);
+
+    private static final long POLL_INTERVAL = 25;
+    private static final Map<String, SiteStatistics> STATISTICS = new ConcurrentHashMap<>();
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(ConsoleWait::logStatistics, "console-wait-statistics"));
+    }
+
+    private final String site;
+    private final WebDriver browser;
+    private final long budget;
+    private boolean progressHidden;
+    private boolean noPendingRequests;
+    private long quietPeriod = -1;
+    private long mutationsBefore = -1;
+    private final List<BooleanSupplier> modelConditions = new ArrayList<>();
+
+    private ConsoleWait(String site, WebDriver browser, long budget) {
+        this.site = site;
+        this.browser = browser;
+        this.budget = budget;
+    }
+
+    /**
+     * @param site    name of the call site, used to aggregate statistics, e.g. <code>BasePage.selectMenu</code>
+     * @param browser browser with loaded console
+     * @param budget  max time in ms to wait at this call site
+     */
+    public static ConsoleWait at(String site, WebDriver browser, long budget) {
+        return new ConsoleWait(site, browser, budget);
+    }
+
+    /**
+     * Wait until <code>hal-ProgressElement</code> is hidden.
+     */
+    public ConsoleWait untilProgressHidden() {
+        this.progressHidden = true;
+        return this;
+    }
+
+    /**
+     * Wait until there is no XHR (GWT RPC, management request) in flight.
+     *
+     * @see ConsoleIdleDetector
+     */
+    public ConsoleWait untilNoPendingRequests() {
+        this.noPendingRequests = true;
+        return this;
+    }
+
+    /**
+     * Wait until DOM has not changed for given period.
+     *
+     * @param quietPeriod time in ms without any DOM mutation
+     */
+    public ConsoleWait untilDomQuiet(long quietPeriod) {
+        this.quietPeriod = quietPeriod;
+        return this;
+    }
+
+    /**
+     * Wait until DOM has changed since given state was probed, i.e. the action following the probe has started to
+     * render. Probe the state before the action, which installs the detector as well.
+     *
+     * @param before state probed before the action, ignored if null
+     */
+    public ConsoleWait untilDomChangedSince(ConsoleIdleDetector.State before) {
+        this.mutationsBefore = before == null ? -1 : before.getMutationCount();
+        return this;
+    }
+
+    /**
+     * Wait until given condition, typically a check that the change has propagated to the model, holds.
+     */
+    public ConsoleWait untilModel(BooleanSupplier condition) {
+        this.modelConditions.add(condition);
+        return this;
+    }
+
+    /**
+     * Shortcut for waiting until progress element is hidden, no request is pending and DOM is stable.
+     *
+     * @return true if console got idle within the budget, false otherwise
+     */
+    public boolean untilConsoleIdle() {
+        return untilProgressHidden()
+                .untilNoPendingRequests()
+                .untilDomQuiet(ConsoleIdleDetector.STABLE_PERIOD)
+                .await();
+    }
+
+    /**
+     * Polls all registered signals until they are all satisfied or the budget is exhausted.
+     *
+     * @return true if all signals were satisfied within the budget, false otherwise
+     */
+    public boolean await() {
+        long start = System.currentTimeMillis();
+        boolean satisfied = isSatisfied();
+        while (!satisfied && System.currentTimeMillis() - start < budget) {
+            Library.letsSleep(POLL_INTERVAL);
+            satisfied = isSatisfied();
+        }
+        long waited = System.currentTimeMillis() - start;
+        STATISTICS.computeIfAbsent(site, s -> new SiteStatistics()).record(waited, !satisfied);
+        if (satisfied) {
+            log.debug("Wait at {} took {} ms (budget {} ms)", site, waited, budget);
+        } else {
+            log.warn("Console did not settle at {} within {} ms, continuing", site, budget);
+        }
+        return satisfied;
+    }
+
+    private boolean isSatisfied() {
+        if (progressHidden || noPendingRequests || quietPeriod >= 0 || mutationsBefore >= 0) {
+            ConsoleIdleDetector.State state = ConsoleIdleDetector.probe(browser);
+            if (state == null) {
+                return false;
+            }
+            if (noPendingRequests && state.getPendingRequests() > 0) {
+                return false;
+            }
+            if (quietPeriod >= 0 && state.getStableFor() < quietPeriod) {
+                return false;
+            }
+            if (progressHidden && state.isProgressVisible()) {
+                return false;
+            }
+            if (mutationsBefore >= 0 && state.getMutationCount() == mutationsBefore) {
+                return false;
+            }
+        }
+        for (BooleanSupplier condition : modelConditions) {
+            if (!condition.getAsBoolean()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void logStatistics() {
+        if (STATISTICS.isEmpty()) {
+            return;
+        }
+        StringBuilder sb = new StringBuilder("Console wait statistics (site: waits, total ms, max ms, timeouts):");
+        STATISTICS.entrySet().stream()
+                .sorted(Comparator.comparingLong(e -> -e.getValue().total))
+                .forEach(e -> sb.append(System.lineSeparator()).append("  ").append(e.getKey()).append(": ")
+                        .append(e.getValue()));
+        log.info(sb.toString());
+    }
+
+    private static final class SiteStatistics {
+
+        private long count;
+        private long total;
+        private long max;
+        private long timeouts;
+
+        private synchronized void record(long waited, boolean timedOut) {
+            count++;
+            total += waited;
+            max = Math.max(max, waited);
+            if (timedOut) {
+                timeouts++;
+            }
+        }
+
+        @Override
+        public synchronized String toString() {
+            return count + ", " + total + ", " + max + ", " + timeouts;
+        }
+    }
+}
@@ -93,8 +93,8 @@ public class ElytronIntegrationChecker {
      * @param errorMessage error message to use for example to describe known issue
      */
     public void setCredentialStoreCredentialReferenceAndVerify(String errorMessage) throws Exception {
-        final String credentialStoreName = "credential-store_" + RandomStringUtils.randomAlphanumeric(6),
-                credentialStoreAliasName = "credential-store-alias_" + RandomStringUtils.randomAlphanumeric(6),
+        final String credentialStoreName = ParallelExecution.uniqueName("credential-store"),
+                credentialStoreAliasName = ParallelExecution.uniqueName("credential-store-alias"),
                 credentialStoreAliasValue = "alias-value_" + RandomStringUtils.randomAlphanumeric(6);
         final ModelNodeResult originalValue = operations.readAttribute(address, credentialReferenceAttributeName);
         originalValue.assertSuccess();
@@ -145,7 +145,7 @@ public class ElytronIntegrationChecker {
     public void testIllegalCombinationCredentialReferenceAttributes(String errorMessage) throws Exception {
         final ModelNodeResult originalValue = operations.readAttribute(address, credentialReferenceAttributeName);
         originalValue.assertSuccess();
-        final String credentialStoreName = "credential-store-name_" + RandomStringUtils.randomAlphanumeric(6);
+        final String credentialStoreName = ParallelExecution.uniqueName("credential-store-name");
         //add credential store (in case capabilities restriction will be in place)
         final Address credentialStoreAddress = addCredentialStore(credentialStoreName);
         try {
@@ -0,0 +1,99 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.hal.testsuite.util;
+
+import org.openqa.selenium.Keys;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.interactions.Actions;
+
+/**
+ * Types text key by key, so that per-key GWT handlers (suggest boxes, validation) are triggered, but without a round
+ * trip and a fixed sleep per character. Keys are sent in chunks via {@link Actions}. As long as the console stays idle
+ * between chunks (no request in flight, e.g. for suggestions) the chunk size grows, once the console gets busy the
+ * typing waits until it is idle again and continues key by key. Typing speed never exceeds
+ * <code>suite.typing.max.cps</code> characters per second.
+ */
+public final class HumanTyping {
+
+    /**
+     * Max characters per second.
+     */
+    public static final int MAX_CPS = Integer.parseInt(ConfigUtils.get("suite.typing.max.cps", "200"));
+
+    private static final int MAX_CHUNK = 16;
+    private static final long IDLE_BUDGET = 1000;
+
+    private HumanTyping() {
+    }
+
+    /**
+     * Replaces content of the element by given text. Selects everything by keyboard shortcut, deletes it and types the
+     * text.
+     */
+    public static void replace(WebDriver browser, WebElement element, CharSequence text) {
+        ConsoleIdleDetector.install(browser);
+        element.click();
+        new Actions(browser)
+                .keyDown(Keys.CONTROL).sendKeys("a").keyUp(Keys.CONTROL)
+                .sendKeys(Keys.DELETE)
+                .perform();
+        waitUntilIdle(browser);
+        type(browser, text);
+    }
+
+    /**
+     * Types given text to currently focused element.
+     */
+    public static void type(WebDriver browser, CharSequence text) {
+        ConsoleIdleDetector.install(browser);
+        long keyInterval = 1000 / Math.max(MAX_CPS, 1);
+        int chunk = 1;
+        int position = 0;
+        while (position < text.length()) {
+            int end = Math.min(position + chunk, text.length());
+            long start = System.currentTimeMillis();
+            new Actions(browser).sendKeys(text.subSequence(position, end)).perform();
+            long remaining = (end - position) * keyInterval - (System.currentTimeMillis() - start);
+            if (remaining > 0) {
+                Library.letsSleep(remaining);
+            }
+            position = end;
+            if (isBusy(browser)) {
+                waitUntilIdle(browser);
+                chunk = 1;
+            } else {
+                chunk = Math.min(chunk * 2, MAX_CHUNK);
+            }
+        }
+    }
+
+    private static boolean isBusy(WebDriver browser) {
+        ConsoleIdleDetector.State state = ConsoleIdleDetector.probe(browser);
+        return state == null || state.getPendingRequests() > 0;
+    }
+
+    private static void waitUntilIdle(WebDriver browser) {
+        ConsoleWait.at("HumanTyping.type", browser, IDLE_BUDGET).untilNoPendingRequests().await();
+    }
+}
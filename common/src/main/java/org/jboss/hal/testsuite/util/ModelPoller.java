@@ -0,0 +1,264 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+
+package org.jboss.hal.testsuite.util;
+
+import org.jboss.dmr.ModelNode;
+import org.jboss.dmr.Property;
+import org.jboss.hal.testsuite.cli.Library;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * Polling engine shared by all loops waiting for a change to get propagated to the model (or for an operation to
+ * succeed). Polling starts with checks every <code>suite.poll.initial.interval</code> ms (default 5) and the interval
+ * doubles after every unsuccessful check up to <code>suite.poll.max.interval</code> ms (default 100), so a change which
+ * is already in the model is detected almost immediately while a slow one doesn't flood the server.
+ * <p/>
+ * Time until the condition got satisfied is collected into a histogram per resource type (address with resource names
+ * replaced by their types, e.g. <code>subsystem=undertow/server/http-listener</code>). The histograms are logged at the
+ * end of the run and written as CSV to <code>suite.poll.report</code> file if set, to find out which operations are
+ * really slow and how low <code>propagate.to.model.timeout</code> can safely be.
+ */
+public final class ModelPoller {
+
+    private static final Logger log = LoggerFactory.getLogger(ModelPoller.class);
+
+    private static final long INITIAL_INTERVAL = Long.parseLong(ConfigUtils.get("suite.poll.initial.interval", "5"));
+    private static final long MAX_INTERVAL = Long.parseLong(ConfigUtils.get("suite.poll.max.interval", "100"));
+    private static final String REPORT = ConfigUtils.get("suite.poll.report", "");
+
+    /**
+     * Upper bounds (inclusive) of histogram buckets in ms, the last bucket holds everything above.
+     */
+    private static final long[] BUCKETS = {1, 2, 5, 10, 20, 50, 100, 200, 500, 1000, 2000, 5000, 10000};
+
+    private static final Map<String, Histogram> HISTOGRAMS = new ConcurrentHashMap<>();
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(ModelPoller::report, "model-poller-statistics"));
+    }
+
+    private ModelPoller() {
+    }
+
+    /**
+     * Probes repeatedly until the result satisfies given condition or the timeout expires. The probe is always called
+     * at least once and once more right at the timeout if the condition was not satisfied before.
+     *
+     * @param resourceType type of the polled resource used to aggregate statistics, see {@link #resourceType(String)}
+     * @param timeout      max time in ms to poll, with 0 the probe is called just once and nothing is recorded
+     * @param probe        reads current state, e.g. executes read-attribute operation
+     * @param done         whether the state read by the probe is the expected one
+     * @return result of the last probe
+     */
+    public static <T, E extends Exception> T poll(String resourceType, long timeout, Probe<T, E> probe,
+            Predicate<? super T> done) throws E {
+        long start = System.currentTimeMillis();
+        long deadline = start + timeout;
+        long interval = INITIAL_INTERVAL;
+        int probes = 1;
+        T result = probe.probe();
+        boolean satisfied = done.test(result);
+        while (!satisfied && System.currentTimeMillis() < deadline) {
+            Library.letsSleep(Math.max(1, Math.min(interval, deadline - System.currentTimeMillis())));
+            interval = Math.min(interval * 2, MAX_INTERVAL);
+            result = probe.probe();
+            satisfied = done.test(result);
+            probes++;
+        }
+        if (timeout > 0) {
+            long elapsed = System.currentTimeMillis() - start;
+            HISTOGRAMS.computeIfAbsent(resourceType, t -> new Histogram()).record(elapsed, satisfied);
+            log.debug("Polling {} {} after {} ms and {} probes", resourceType, satisfied ? "satisfied" : "timed out",
+                    elapsed, probes);
+        }
+        return result;
+    }
+
+    /**
+     * Same as {@link #poll(String, long, Probe, Predicate)} for probes which check the condition themselves.
+     *
+     * @return true if the condition got satisfied within the timeout
+     */
+    public static <E extends Exception> boolean pollUntil(String resourceType, long timeout, Probe<Boolean, E> check)
+            throws E {
+        return poll(resourceType, timeout, check, Boolean::booleanValue);
+    }
+
+    /**
+     * @param path address (or CLI command) like <code>/subsystem=undertow/server=default-server:read-resource</code>
+     * @return resource type like <code>subsystem=undertow/server</code>, for CLI commands without address the command
+     * name
+     */
+    public static String resourceType(String path) {
+        String trimmed = path.trim();
+        if (!trimmed.startsWith("/")) {
+            int space = trimmed.indexOf(' ');
+            return space < 0 ? trimmed : trimmed.substring(0, space);
+        }
+        int operation = trimmed.indexOf(':');
+        if (operation >= 0) {
+            trimmed = trimmed.substring(0, operation);
+        }
+        List<String> segments = new ArrayList<>();
+        for (String segment : trimmed.split("/")) {
+            if (segment.isEmpty()) {
+                continue;
+            }
+            int eq = segment.indexOf('=');
+            String key = eq < 0 ? segment : segment.substring(0, eq);
+            segments.add(key.equals("subsystem") ? segment : key);
+        }
+        return segments.isEmpty() ? "/" : String.join("/", segments);
+    }
+
+    /**
+     * @param address address as list of properties as used in DMR operations
+     * @return resource type like <code>subsystem=undertow/server</code>
+     */
+    public static String resourceType(ModelNode address) {
+        StringBuilder path = new StringBuilder();
+        if (address.isDefined()) {
+            for (Property property : address.asPropertyList()) {
+                path.append('/').append(property.getName()).append('=').append(property.getValue().asString());
+            }
+        }
+        return resourceType(path.length() == 0 ? "/" : path.toString());
+    }
+
+    private static void report() {
+        if (HISTOGRAMS.isEmpty()) {
+            return;
+        }
+        List<Map.Entry<String, Histogram>> entries = new ArrayList<>(HISTOGRAMS.entrySet());
+        entries.sort(Comparator.comparingLong(e -> -e.getValue().getTotal()));
+
+        StringBuilder sb = new StringBuilder("Model propagation statistics (type: polls, timeouts, p50 ms, p95 ms, "
+                + "max ms):");
+        for (Map.Entry<String, Histogram> entry : entries) {
+            sb.append(System.lineSeparator()).append("  ").append(entry.getKey()).append(": ").append(entry.getValue());
+        }
+        log.info(sb.toString());
+
+        if (!REPORT.isEmpty()) {
+            writeReport(new File(REPORT), entries);
+        }
+    }
+
+    private static void writeReport(File file, List<Map.Entry<String, Histogram>> entries) {
+        try (PrintWriter writer = new PrintWriter(new OutputStreamWriter(new FileOutputStream(file),
+                StandardCharsets.UTF_8))) {
+            StringBuilder header = new StringBuilder("type,polls,timeouts,p50,p95,max");
+            for (long bucket : BUCKETS) {
+                header.append(",le").append(bucket);
+            }
+            writer.println(header.append(",gt").append(BUCKETS[BUCKETS.length - 1]));
+            for (Map.Entry<String, Histogram> entry : entries) {
+                writer.println("\"" + entry.getKey().replace("\"", "\"\"") + "\"," + entry.getValue().toCsv());
+            }
+        } catch (IOException e) {
+            log.warn("Unable to write model propagation statistics to " + file, e);
+        }
+    }
+
+    /**
+     * Reads current state, may throw the same exception as the operation it executes.
+     */
+    @FunctionalInterface
+    public interface Probe<T, E extends Exception> {
+        T probe() throws E;
+    }
+
+    private static final class Histogram {
+
+        private final long[] counts = new long[BUCKETS.length + 1];
+        private long total;
+        private long timeouts;
+        private long max;
+
+        private synchronized void record(long elapsed, boolean satisfied) {
+            total++;
+            if (!satisfied) {
+                timeouts++;
+                return;
+            }
+            max = Math.max(max, elapsed);
+            int bucket = 0;
+            while (bucket < BUCKETS.length && elapsed > BUCKETS[bucket]) {
+                bucket++;
+            }
+            counts[bucket]++;
+        }
+
+        private synchronized long getTotal() {
+            return total;
+        }
+
+        /**
+         * @return upper bound of the bucket containing given percentile of satisfied polls, max for the last bucket
+         */
+        private synchronized long percentile(double percentile) {
+            long satisfied = total - timeouts;
+            if (satisfied == 0) {
+                return -1;
+            }
+            long threshold = (long) Math.ceil(satisfied * percentile);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS.length; i++) {
+                seen += counts[i];
+                if (seen >= threshold) {
+                    return Math.min(BUCKETS[i], max);
+                }
+            }
+            return max;
+        }
+
+        private synchronized String toCsv() {
+            StringBuilder sb = new StringBuilder().append(total).append(',').append(timeouts).append(',')
+                    .append(percentile(0.5)).append(',').append(percentile(0.95)).append(',').append(max);
+            for (long count : counts) {
+                sb.append(',').append(count);
+            }
+            return sb.toString();
+        }
+
+        @Override
+        public synchronized String toString() {
+            return total + ", " + timeouts + ", " + percentile(0.5) + ", " + percentile(0.95) + ", " + max;
+        }
+    }
+}
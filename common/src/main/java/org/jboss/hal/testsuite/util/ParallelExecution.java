@@ -0,0 +1,69 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.hal.testsuite.util;
+
+import org.apache.commons.lang3.RandomStringUtils;
+
+/**
+ * Settings of parallel execution (<code>-Pparallel</code>), where test classes run in several surefire forks at once,
+ * each with its own browser, against the same server. Resources created by a fork should be named by
+ * {@link #uniqueName(String)} so that they can't clash with resources of other forks, since changes done via the
+ * console are not locked. Resources shared by all forks are guarded by {@link ResourceLockRegistry}.
+ */
+public final class ParallelExecution {
+
+    private static final boolean ENABLED = Boolean.parseBoolean(ConfigUtils.get("suite.parallel", "false"));
+    private static final String FORK_NUMBER = ConfigUtils.get("suite.fork.number", "1");
+
+    private ParallelExecution() {
+    }
+
+    /**
+     * @return true if test classes are executed in parallel forks
+     */
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * @return number of this fork as assigned by surefire, 1 when not running in parallel
+     */
+    public static String getForkNumber() {
+        return FORK_NUMBER;
+    }
+
+    /**
+     * @return prefix unique for this fork, e.g. <code>f2_</code>, empty when not running in parallel
+     */
+    public static String getResourcePrefix() {
+        return ENABLED ? "f" + FORK_NUMBER + "_" : "";
+    }
+
+    /**
+     * @param base base of the name, e.g. <code>queue</code>
+     * @return name prefixed by this fork's prefix and suffixed by random string, e.g. <code>f2_queue_a8Xq3</code>
+     */
+    public static String uniqueName(String base) {
+        return getResourcePrefix() + base + "_" + RandomStringUtils.randomAlphanumeric(5);
+    }
+}
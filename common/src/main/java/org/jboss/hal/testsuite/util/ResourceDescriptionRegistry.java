@@ -0,0 +1,418 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+
+package org.jboss.hal.testsuite.util;
+
+import org.jboss.dmr.ModelNode;
+import org.jboss.dmr.ModelType;
+import org.jboss.dmr.Property;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wildfly.extras.creaper.core.online.ModelNodeResult;
+import org.wildfly.extras.creaper.core.online.OnlineManagementClient;
+import org.wildfly.extras.creaper.core.online.operations.Address;
+import org.wildfly.extras.creaper.core.online.operations.Operations;
+import org.wildfly.extras.creaper.core.online.operations.Values;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cache of resource descriptions (attribute types, default values, ...) keyed by address template, e.g.
+ * <code>subsystem=logging/periodic-rotating-file-handler=*</code>. A segment of the template keeps its value only if the
+ * resource is registered under that specific name (e.g. <code>subsystem=undertow/configuration=filter</code>), the first
+ * segment is always kept as it is.
+ * <p/>
+ * Descriptions are loaded lazily by <code>read-resource-description(recursive-depth=1)</code> of the parent resource,
+ * which describes all child types of the parent at once. Loaded descriptions are kept per server version (product name,
+ * product version and management version) and persisted to <code>suite.description.cache.dir</code> (default
+ * <code>hal-testsuite-descriptions</code> in temp directory) at the end of the run, so the next run against the same
+ * server version doesn't need any extra round trip. Switch the cache off by <code>suite.description.cache=false</code>,
+ * descriptions are then still kept in memory, but not persisted.
+ */
+public final class ResourceDescriptionRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(ResourceDescriptionRegistry.class);
+
+    private static final boolean PERSISTENT = Boolean.parseBoolean(ConfigUtils.get("suite.description.cache", "true"));
+    private static final File CACHE_DIR = new File(ConfigUtils.get("suite.description.cache.dir",
+            new File(System.getProperty("java.io.tmpdir"), "hal-testsuite-descriptions").getPath()));
+
+    private static final String ATTRIBUTES = "attributes";
+    private static final String CHILDREN = "children";
+    private static final String MODEL_DESCRIPTION = "model-description";
+    private static final String TYPE = "type";
+    private static final String DEFAULT = "default";
+    private static final String DESCRIPTIONS = "descriptions";
+    private static final String REGISTRATIONS = "registrations";
+    private static final String WILDCARD = "*";
+
+    private static final Map<String, DescriptionCache> CACHES = new HashMap<>();
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(ResourceDescriptionRegistry::storeAll,
+                "resource-description-registry-store"));
+    }
+
+    private final Source source;
+    private final DescriptionCache cache;
+
+    private ResourceDescriptionRegistry(Source source, DescriptionCache cache) {
+        this.source = source;
+        this.cache = cache;
+    }
+
+    /**
+     * Creates registry reading missing descriptions from given source. Registries of sources connected to servers of
+     * the same version share the cache. Keep the registry as long as the source is connected, creating it costs a round
+     * trip to read the server version.
+     */
+    public static ResourceDescriptionRegistry of(Source source) throws IOException {
+        ModelNode root = source.readRootAttributes();
+        String version = valueOf(root, "product-name", "WildFly") + "-"
+                + valueOf(root, "product-version", valueOf(root, "release-version", "unknown")) + "-"
+                + valueOf(root, "management-major-version", "0") + "."
+                + valueOf(root, "management-minor-version", "0") + "."
+                + valueOf(root, "management-micro-version", "0");
+        DescriptionCache cache;
+        synchronized (CACHES) {
+            cache = CACHES.computeIfAbsent(version, DescriptionCache::new);
+        }
+        return new ResourceDescriptionRegistry(source, cache);
+    }
+
+    /**
+     * Creates registry reading missing descriptions via given creaper client.
+     */
+    public static ResourceDescriptionRegistry of(OnlineManagementClient client) throws IOException {
+        return of(new CreaperSource(client));
+    }
+
+    /**
+     * @param address address like <code>/subsystem=logging/periodic-rotating-file-handler=FILE</code>, null or empty
+     *                for root
+     * @return description of the resource, don't modify it; null if the resource type doesn't exist
+     */
+    public ModelNode getDescription(String address) throws IOException {
+        return getDescription(parseAddress(address));
+    }
+
+    /**
+     * @param address address as list of properties as used in DMR operations
+     * @return description of the resource, don't modify it; null if the resource type doesn't exist
+     */
+    public ModelNode getDescription(ModelNode address) throws IOException {
+        String template = getTemplate(address);
+        return template == null ? null : cache.getDescription(template);
+    }
+
+    /**
+     * @return type of the attribute or null if there is no such attribute
+     */
+    public ModelType getAttributeType(String address, String attribute) throws IOException {
+        ModelNode description = getAttributeDescription(address, attribute);
+        return description == null || !description.hasDefined(TYPE) ? null : description.get(TYPE).asType();
+    }
+
+    /**
+     * @return default value of the attribute, undefined node if it has no default value or doesn't exist
+     */
+    public ModelNode getDefaultValue(String address, String attribute) throws IOException {
+        ModelNode description = getAttributeDescription(address, attribute);
+        return description == null || !description.hasDefined(DEFAULT) ? new ModelNode() : description.get(DEFAULT)
+                .clone();
+    }
+
+    /**
+     * @return description of the attribute, don't modify it; null if there is no such attribute
+     */
+    public ModelNode getAttributeDescription(String address, String attribute) throws IOException {
+        ModelNode description = getDescription(address);
+        if (description == null || !description.hasDefined(ATTRIBUTES)
+                || !description.get(ATTRIBUTES).hasDefined(attribute)) {
+            return null;
+        }
+        return description.get(ATTRIBUTES).get(attribute);
+    }
+
+    /**
+     * Resolves the address template, loading descriptions of parent resources if not known yet.
+     *
+     * @return template like <code>subsystem=logging/periodic-rotating-file-handler=*</code>, empty string for root,
+     * null if the resource type doesn't exist
+     */
+    public String getTemplate(ModelNode address) throws IOException {
+        String template = "";
+        ModelNode concrete = new ModelNode().setEmptyList();
+        List<Property> segments = address.isDefined() ? address.asPropertyList() : Collections.emptyList();
+        for (Property segment : segments) {
+            String type = segment.getName();
+            String name = segment.getValue().asString();
+            if (template.isEmpty()) {
+                template = type + "=" + name;
+            } else {
+                ModelNode registrations = cache.getRegistrations(template);
+                if (registrations == null) {
+                    if (!load(template, concrete)) {
+                        return null;
+                    }
+                    registrations = cache.getRegistrations(template);
+                }
+                if (!registrations.hasDefined(type)) {
+                    return null;
+                }
+                boolean specific = registrations.get(type).asList().stream().anyMatch(n -> n.asString().equals(name));
+                template = template + "/" + type + "=" + (specific ? name : WILDCARD);
+            }
+            concrete.add(type, name);
+        }
+        if (cache.getDescription(template) == null && !load(template, concrete)) {
+            return null;
+        }
+        return template;
+    }
+
+    /**
+     * Reads description of given resource including its children and puts all of them to the cache.
+     *
+     * @return false if the resource could not be described
+     */
+    private boolean load(String template, ModelNode concrete) throws IOException {
+        ModelNode description = source.readDescription(concrete);
+        if (description == null || !description.isDefined()) {
+            log.debug("Unable to read description of {}", concrete);
+            return false;
+        }
+        ModelNode registrations = new ModelNode().setEmptyObject();
+        if (description.hasDefined(CHILDREN)) {
+            for (Property childType : description.get(CHILDREN).asPropertyList()) {
+                ModelNode names = registrations.get(childType.getName()).setEmptyList();
+                ModelNode models = childType.getValue().get(MODEL_DESCRIPTION);
+                if (!models.isDefined()) {
+                    continue;
+                }
+                for (Property model : models.asPropertyList()) {
+                    names.add(model.getName());
+                    if (model.getValue().isDefined()) {
+                        cache.putDescription((template.isEmpty() ? "" : template + "/") + childType.getName() + "="
+                                + model.getName(), withoutChildModels(model.getValue()));
+                    }
+                }
+            }
+        }
+        cache.putDescription(template, withoutChildModels(description));
+        cache.putRegistrations(template, registrations);
+        return true;
+    }
+
+    private static ModelNode withoutChildModels(ModelNode description) {
+        ModelNode result = description.clone();
+        if (result.hasDefined(CHILDREN)) {
+            ModelNode children = new ModelNode().setEmptyObject();
+            for (Property childType : result.get(CHILDREN).asPropertyList()) {
+                ModelNode child = children.get(childType.getName()).setEmptyObject();
+                if (childType.getValue().isDefined()) {
+                    for (Property property : childType.getValue().asPropertyList()) {
+                        if (!property.getName().equals(MODEL_DESCRIPTION)) {
+                            child.get(property.getName()).set(property.getValue());
+                        }
+                    }
+                }
+            }
+            result.get(CHILDREN).set(children);
+        }
+        return result;
+    }
+
+    private static String valueOf(ModelNode node, String key, String defaultValue) {
+        return node.hasDefined(key) ? node.get(key).asString() : defaultValue;
+    }
+
+    /**
+     * @param address address like <code>/subsystem=logging/periodic-rotating-file-handler=FILE</code>
+     * @return address as list of properties
+     */
+    public static ModelNode parseAddress(String address) {
+        ModelNode result = new ModelNode().setEmptyList();
+        if (address == null) {
+            return result;
+        }
+        for (String segment : address.split("/")) {
+            int eq = segment.indexOf('=');
+            if (eq > 0) {
+                result.add(segment.substring(0, eq).trim(), segment.substring(eq + 1).trim());
+            }
+        }
+        return result;
+    }
+
+    private static void storeAll() {
+        if (!PERSISTENT) {
+            return;
+        }
+        synchronized (CACHES) {
+            CACHES.values().forEach(DescriptionCache::store);
+        }
+    }
+
+    /**
+     * Reads descriptions from the server.
+     */
+    public interface Source {
+
+        /**
+         * @return attributes of the root resource (product name and version)
+         */
+        ModelNode readRootAttributes() throws IOException;
+
+        /**
+         * @param address address as list of properties as used in DMR operations
+         * @return result of <code>read-resource-description(recursive-depth=1)</code> at given address or null if it
+         * failed
+         */
+        ModelNode readDescription(ModelNode address) throws IOException;
+    }
+
+    private static final class CreaperSource implements Source {
+
+        private final Operations ops;
+
+        private CreaperSource(OnlineManagementClient client) {
+            this.ops = new Operations(client);
+        }
+
+        @Override
+        public ModelNode readRootAttributes() throws IOException {
+            ModelNodeResult result = ops.invoke("read-resource", Address.root(), Values.of("attributes-only", true));
+            return result.isSuccess() ? result.value() : new ModelNode();
+        }
+
+        @Override
+        public ModelNode readDescription(ModelNode address) throws IOException {
+            Address creaperAddress = Address.root();
+            for (Property segment : address.asPropertyList()) {
+                creaperAddress = creaperAddress.and(segment.getName(), segment.getValue().asString());
+            }
+            ModelNodeResult result = ops.invoke("read-resource-description", creaperAddress,
+                    Values.of("recursive-depth", 1));
+            return result.isSuccess() ? result.value() : null;
+        }
+    }
+
+    /**
+     * Descriptions and child registrations of one server version.
+     */
+    private static final class DescriptionCache {
+
+        private final String version;
+        private final File file;
+        private ModelNode descriptions;
+        private ModelNode registrations;
+        private boolean dirty;
+
+        private DescriptionCache(String version) {
+            this.version = version;
+            this.file = new File(CACHE_DIR, version.replaceAll("[^A-Za-z0-9.\\-]", "_") + ".dmr");
+        }
+
+        private synchronized ModelNode getDescription(String template) {
+            ensureLoaded();
+            return descriptions.hasDefined(template) ? descriptions.get(template) : null;
+        }
+
+        private synchronized ModelNode getRegistrations(String template) {
+            ensureLoaded();
+            return registrations.hasDefined(template) ? registrations.get(template) : null;
+        }
+
+        private synchronized void putDescription(String template, ModelNode description) {
+            ensureLoaded();
+            descriptions.get(template).set(description);
+            dirty = true;
+        }
+
+        private synchronized void putRegistrations(String template, ModelNode childRegistrations) {
+            ensureLoaded();
+            registrations.get(template).set(childRegistrations);
+            dirty = true;
+        }
+
+        private void ensureLoaded() {
+            if (descriptions != null) {
+                return;
+            }
+            ModelNode stored = PERSISTENT ? read(file) : new ModelNode();
+            descriptions = stored.hasDefined(DESCRIPTIONS) ? stored.get(DESCRIPTIONS) : new ModelNode().setEmptyObject();
+            registrations = stored.hasDefined(REGISTRATIONS) ? stored.get(REGISTRATIONS)
+                    : new ModelNode().setEmptyObject();
+            log.debug("Loaded {} resource descriptions of {} from {}", descriptions.keys().size(), version, file);
+        }
+
+        /**
+         * Merges content with the stored one (other forks may have stored theirs in the meantime) and writes it.
+         */
+        private synchronized void store() {
+            if (!dirty) {
+                return;
+            }
+            ModelNode merged = read(file);
+            for (Property description : descriptions.asPropertyList()) {
+                merged.get(DESCRIPTIONS, description.getName()).set(description.getValue());
+            }
+            for (Property registration : registrations.asPropertyList()) {
+                merged.get(REGISTRATIONS, registration.getName()).set(registration.getValue());
+            }
+            try {
+                if (!CACHE_DIR.isDirectory() && !CACHE_DIR.mkdirs() && !CACHE_DIR.isDirectory()) {
+                    throw new IOException("Unable to create directory " + CACHE_DIR);
+                }
+                File temp = File.createTempFile(file.getName(), ".tmp", CACHE_DIR);
+                Files.write(temp.toPath(), merged.toString().getBytes(StandardCharsets.UTF_8));
+                Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+                dirty = false;
+            } catch (IOException e) {
+                log.warn("Unable to store resource descriptions to " + file, e);
+            }
+        }
+
+        private static ModelNode read(File file) {
+            if (!file.isFile()) {
+                return new ModelNode();
+            }
+            try {
+                return ModelNode.fromString(new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8));
+            } catch (IOException | IllegalArgumentException e) {
+                log.warn("Unable to read resource descriptions from " + file + ", ignoring them", e);
+                return new ModelNode();
+            }
+        }
+    }
+}
@@ -0,0 +1,299 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.hal.testsuite.util;
+
+import org.jboss.dmr.ModelNode;
+import org.jboss.dmr.ModelType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wildfly.extras.creaper.core.online.operations.Address;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileLock;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * Registry of locks guarding management resources shared by parallel forks (see {@link ParallelExecution}). Locks are
+ * file locks in <code>suite.parallel.lock.dir</code>, so they work across fork JVMs. A lock is held by the fork until
+ * the running test class finishes (see {@link org.jboss.hal.testsuite.testlistener.ResourceLockListener}), which
+ * serializes test classes touching the same resource.
+ * <p/>
+ * Resources are identified by their management address, e.g. <code>subsystem=logging/root-logger=ROOT</code>. An address
+ * within one of the {@link #SINGLETONS} is locked as the singleton itself, since any change within it may interfere
+ * with other forks.
+ * <p/>
+ * Locks are hierarchical. Locking a resource exclusively takes shared locks of all its ancestors up to the root
+ * (empty address) first, so e.g. <code>subsystem=undertow</code> and <code>subsystem=undertow/server=x</code> can't be
+ * locked by different forks at once. Every fork holds the shared lock of the root for the whole test class (see
+ * {@link org.jboss.hal.testsuite.testlistener.ResourceLockListener}), so a reload, restart or shutdown, which locks the
+ * root exclusively, waits until all other running test classes have finished. Changes done via the console UI don't
+ * lock anything, only the shared root lock guards them against reloads of other forks.
+ * <p/>
+ * If a lock can't be acquired within <code>suite.parallel.lock.timeout</code> seconds (e.g. two forks wait for each
+ * other), {@link IllegalStateException} is thrown, so that the test fails rather than runs unguarded.
+ * When not running in parallel all methods are no-op.
+ */
+public final class ResourceLockRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(ResourceLockRegistry.class);
+
+    public static final String ROOT_LOGGER = "subsystem=logging/root-logger=ROOT";
+    public static final String DEFAULT_SERVER = "subsystem=undertow/server=default-server";
+
+    /**
+     * Resources shared by all forks, anything within them is locked as a whole.
+     */
+    public static final List<String> SINGLETONS = Collections.unmodifiableList(Arrays.asList(ROOT_LOGGER,
+            DEFAULT_SERVER));
+
+    private static final File LOCK_DIR = new File(ConfigUtils.get("suite.parallel.lock.dir",
+            new File(System.getProperty("java.io.tmpdir"), "hal-testsuite-locks").getPath()));
+    private static final long TIMEOUT = Long.parseLong(ConfigUtils.get("suite.parallel.lock.timeout", "300")) * 1000;
+    private static final long POLL_INTERVAL = 100;
+
+    private static final ResourceLockRegistry INSTANCE = new ResourceLockRegistry();
+
+    private final Map<String, HeldLock> held = new LinkedHashMap<>();
+
+    private ResourceLockRegistry() {
+    }
+
+    public static ResourceLockRegistry getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Acquires exclusive lock of resource at given address, does nothing if the lock is already held by this fork.
+     *
+     * @throws IllegalStateException if the lock could not be acquired within the timeout
+     */
+    public void acquire(Address address) {
+        acquire(toResource(address.toModelNode()));
+    }
+
+    /**
+     * Acquires exclusive lock of resource at given address, does nothing if the lock is already held by this fork.
+     *
+     * @param address DMR address, i.e. list of key-value properties
+     * @throws IllegalStateException if the lock could not be acquired within the timeout
+     */
+    public void acquire(ModelNode address) {
+        acquire(toResource(address));
+    }
+
+    /**
+     * Acquires exclusive lock of given resource and shared locks of all its ancestors, does nothing if the lock is
+     * already held by this fork. A shared lock held by this fork is upgraded, i.e. released and acquired exclusively.
+     *
+     * @param resource address of the resource, e.g. <code>subsystem=logging/root-logger=ROOT</code>, empty for root
+     * @throws IllegalStateException if the lock could not be acquired within the timeout
+     */
+    public synchronized void acquire(String resource) {
+        acquire(resource, false);
+    }
+
+    /**
+     * Acquires shared lock of given resource and all its ancestors, does nothing if a lock of the resource is already
+     * held by this fork.
+     *
+     * @param resource address of the resource, empty for root
+     * @throws IllegalStateException if the lock could not be acquired within the timeout
+     */
+    public synchronized void acquireShared(String resource) {
+        acquire(resource, true);
+    }
+
+    private void acquire(String resource, boolean shared) {
+        if (!ParallelExecution.isEnabled()) {
+            return;
+        }
+        String key = toLockKey(resource);
+        for (String ancestor : getAncestors(key)) {
+            lock(ancestor, true);
+        }
+        lock(key, shared);
+    }
+
+    private void lock(String key, boolean shared) {
+        HeldLock current = held.get(key);
+        if (current != null && (shared || !current.shared)) {
+            return;
+        }
+        if (current != null) {
+            // file locks can't be upgraded in place
+            held.remove(key);
+            release(key, current);
+        }
+        HeldLock lock;
+        try {
+            lock = tryLock(key, shared);
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to lock '" + key + "'", e);
+        }
+        if (lock == null) {
+            throw new IllegalStateException("Unable to lock '" + key + "' " + (shared ? "shared" : "exclusively")
+                    + " within " + TIMEOUT + " ms in fork " + ParallelExecution.getForkNumber());
+        }
+        held.put(key, lock);
+    }
+
+    /**
+     * Acquires locks of all given resources in global (alphabetical) order, so that forks acquiring their sets of
+     * resources this way can't deadlock.
+     */
+    public synchronized void acquireAll(Collection<String> resources) {
+        new TreeSet<>(resources.stream().map(ResourceLockRegistry::toLockKey).collect(Collectors.toList()))
+                .forEach(this::acquire);
+    }
+
+    /**
+     * @return resources locked exclusively by this fork
+     */
+    public synchronized Set<String> getHeld() {
+        return held.entrySet().stream()
+                .filter(entry -> !entry.getValue().shared)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+
+    /**
+     * Releases all locks held by this fork.
+     */
+    public synchronized void releaseAll() {
+        held.forEach(ResourceLockRegistry::release);
+        held.clear();
+    }
+
+    /**
+     * @param address DMR address, i.e. list of key-value properties
+     * @return address in <code>key=value/key=value</code> form, empty string for root
+     */
+    public static String toResource(ModelNode address) {
+        if (!address.isDefined() || address.getType() != ModelType.LIST) {
+            return "";
+        }
+        return address.asList().stream()
+                .map(ModelNode::asProperty)
+                .map(property -> property.getName() + "=" + property.getValue().asString())
+                .collect(Collectors.joining("/"));
+    }
+
+    /**
+     * @return addresses of all ancestors of the resource from the root (empty address) down, without the resource
+     */
+    private static List<String> getAncestors(String resource) {
+        List<String> ancestors = new ArrayList<>();
+        if (resource.isEmpty()) {
+            return ancestors;
+        }
+        ancestors.add("");
+        for (int i = resource.indexOf('/'); i > 0; i = resource.indexOf('/', i + 1)) {
+            ancestors.add(resource.substring(0, i));
+        }
+        return ancestors;
+    }
+
+    private static String toLockKey(String resource) {
+        for (String singleton : SINGLETONS) {
+            if (resource.equals(singleton) || resource.startsWith(singleton + "/")) {
+                return singleton;
+            }
+        }
+        return resource;
+    }
+
+    private static void release(String key, HeldLock lock) {
+        try {
+            lock.release();
+        } catch (IOException e) {
+            log.warn("Unable to release lock of '" + key + "'", e);
+        }
+    }
+
+    private static HeldLock tryLock(String key, boolean shared) throws IOException {
+        if (!LOCK_DIR.isDirectory() && !LOCK_DIR.mkdirs() && !LOCK_DIR.isDirectory()) {
+            throw new IOException("Unable to create lock directory " + LOCK_DIR);
+        }
+        String fileName = key.isEmpty() ? "root.lock" : key.replaceAll("[^A-Za-z0-9.\\-]", "_") + "-"
+                + Integer.toHexString(key.hashCode()) + ".lock";
+        RandomAccessFile file = new RandomAccessFile(new File(LOCK_DIR, fileName), "rw");
+        try {
+            long start = System.currentTimeMillis();
+            FileLock lock = file.getChannel().tryLock(0, Long.MAX_VALUE, shared);
+            while (lock == null && System.currentTimeMillis() - start < TIMEOUT) {
+                Library.letsSleep(POLL_INTERVAL);
+                lock = file.getChannel().tryLock(0, Long.MAX_VALUE, shared);
+            }
+            if (lock == null) {
+                file.close();
+                return null;
+            }
+            long waited = System.currentTimeMillis() - start;
+            if (waited > POLL_INTERVAL) {
+                log.info("Fork {} waited {} ms for {} lock of '{}'", ParallelExecution.getForkNumber(), waited,
+                        shared ? "shared" : "exclusive", key);
+            }
+            return new HeldLock(file, lock, shared);
+        } catch (IOException | RuntimeException e) {
+            try {
+                file.close();
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e;
+        }
+    }
+
+    private static final class HeldLock {
+
+        private final RandomAccessFile file;
+        private final FileLock lock;
+        private final boolean shared;
+
+        private HeldLock(RandomAccessFile file, FileLock lock, boolean shared) {
+            this.file = file;
+            this.lock = lock;
+            this.shared = shared;
+        }
+
+        private void release() throws IOException {
+            try {
+                lock.release();
+            } finally {
+                file.close();
+            }
+        }
+    }
+}
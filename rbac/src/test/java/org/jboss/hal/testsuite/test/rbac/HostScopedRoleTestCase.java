@@ -9,10 +9,10 @@ import org.jboss.arquillian.graphene.page.Page;
 import org.jboss.arquillian.junit.Arquillian;
 import org.jboss.dmr.ModelNode;
 import org.jboss.hal.testsuite.category.Domain;
-import org.jboss.hal.testsuite.cli.Library;
 import org.jboss.hal.testsuite.cli.TimeoutException;
 import org.jboss.hal.testsuite.creaper.ManagementClientProvider;
 import org.jboss.hal.testsuite.dmr.Dispatcher;
+import org.jboss.hal.testsuite.dmr.Operation;
 import org.jboss.hal.testsuite.dmr.ResourceAddress;
 import org.jboss.hal.testsuite.dmr.ResourceVerifier;
 import org.jboss.hal.testsuite.finder.FinderNames;
@@ -21,6 +21,7 @@ import org.jboss.hal.testsuite.fragment.shared.modal.ConfirmationWindow;
 import org.jboss.hal.testsuite.page.admin.RoleAssignmentPage;
 import org.jboss.hal.testsuite.util.Authentication;
 import org.jboss.hal.testsuite.util.Console;
+import org.jboss.hal.testsuite.util.ConsoleWait;
 import org.jboss.hal.testsuite.util.RbacRole;
 import org.junit.AfterClass;
 import org.junit.Before;
@@ -31,6 +32,8 @@ import org.junit.runner.RunWith;
 import org.openqa.selenium.WebDriver;
 import org.wildfly.extras.creaper.core.online.OnlineManagementClient;
 
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.READ_RESOURCE_OPERATION;
+
 /**
  * Created by pcyprian on 9.10.15.
  */
@@ -81,7 +84,7 @@ public class HostScopedRoleTestCase {
         verifier.verifyResource(address, true, 300);
         refresh();
         removeRole();
-        Library.letsSleep(1500);
+        waitUntilRemoved();
         verifier.verifyResource(address, false);
     }
 
@@ -92,7 +95,7 @@ public class HostScopedRoleTestCase {
         verifier.verifyResource(address, true, 300);
         refresh();
         removeRole();
-        Library.letsSleep(1500);
+        waitUntilRemoved();
         verifier.verifyResource(address, false);
     }
 
@@ -102,7 +105,7 @@ public class HostScopedRoleTestCase {
         addRole("Monitor", "master", false);
         verifier.verifyResource(address, true, 300);
         removeRole();
-        Library.letsSleep(1500);
+        waitUntilRemoved();
         verifier.verifyResource(address, false);
     }
 
@@ -113,7 +116,7 @@ public class HostScopedRoleTestCase {
         verifier.verifyResource(address, true, 300);
         refresh();
         removeRole();
-        Library.letsSleep(1500);
+        waitUntilRemoved();
         verifier.verifyResource(address, false);
     }
 
@@ -124,13 +127,13 @@ public class HostScopedRoleTestCase {
         verifier.verifyResource(address, true, 300);
 
         page.addInclude("monitor", "ManagementRealm", NAME);
-        Library.letsSleep(1000);
+        waitUntilSaved();
         removeRole();
         verifier.verifyResource(address, true);
 
         page.removeInclude("monitor", "ManagementRealm", NAME);
         removeRole();
-        Library.letsSleep(1500);
+        waitUntilRemoved();
         verifier.verifyResource(address, false);
     }
 
@@ -146,11 +149,11 @@ public class HostScopedRoleTestCase {
         navigation.selectRow().invoke("Edit");
         page.getWindowFragment().getEditor().text("scope", "slave");
         page.getWindowFragment().clickButton("Save");
-        Library.letsSleep(1000);
+        waitUntilSaved();
         verifier.verifyAttribute(address, "hosts", "[\"slave\"]");
         refresh();
         removeRole();
-        Library.letsSleep(1500);
+        waitUntilRemoved();
         verifier.verifyResource(address, false);
     }
 
@@ -167,13 +170,13 @@ public class HostScopedRoleTestCase {
         page.getWindowFragment().getEditor().checkbox("includeAll", true);
         page.getWindowFragment().clickButton("Save");
 
-        Library.letsSleep(1000);
+        waitUntilSaved();
         ResourceAddress add = new ResourceAddress(new ModelNode("/core-service=management/access=authorization/role-mapping=" + NAME));
         verifier.verifyAttribute(add, "include-all", true);
 
         refresh();
         removeRole();
-        Library.letsSleep(1500);
+        waitUntilRemoved();
         verifier.verifyResource(address, false);
     }
 
@@ -189,17 +192,33 @@ public class HostScopedRoleTestCase {
         navigation.selectRow().invoke("Edit");
         page.getWindowFragment().getEditor().select("baseRole", "Maintainer");
         page.getWindowFragment().clickButton("Save");
-        Library.letsSleep(1000);
+        waitUntilSaved();
         verifier.verifyAttribute(address, "base-role", "Maintainer");
         Console.withBrowser(browser).dismissReloadRequiredWindowIfPresent();
         adminOps.reloadAllHostsIfRequired();
         refresh();
         removeRole();
-        Library.letsSleep(1500);
+        waitUntilRemoved();
         verifier.verifyResource(address, false);
     }
 
 
+    /**
+     * The save request is sent by the preceding click, possibly before the idle detector is installed on this page, so
+     * this may rely on progress element and DOM quiet period only. Model is verified by the caller.
+     */
+    private void waitUntilSaved() {
+        ConsoleWait.at("HostScopedRoleTestCase.save", browser, 1000).untilConsoleIdle();
+    }
+
+    private void waitUntilRemoved() {
+        Operation readResource = new Operation.Builder(READ_RESOURCE_OPERATION, address).build();
+        ConsoleWait.at("HostScopedRoleTestCase.removeRole", browser, 1500)
+                .untilNoPendingRequests()
+                .untilModel(() -> !dispatcher.execute(readResource).isSuccessful())
+                .await();
+    }
+
     public void removeRole() {
         navigation = new FinderNavigation(browser, RoleAssignmentPage.class)
                 .step(FinderNames.BROWSE_BY, "Roles")